@@ -5,6 +5,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,4 +31,10 @@ public class AuthenticationController {
     ){
         return ResponseEntity.ok(authenticationService.authenticate(request));
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(Authentication connectedUser){
+        authenticationService.logoutAll(connectedUser);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
 }
@@ -1,12 +1,16 @@
 package com.mohamed.lawyer.auth;
 
+import com.mohamed.lawyer.config.CacheWarmup;
 import com.mohamed.lawyer.config.JwtService;
+import com.mohamed.lawyer.config.TokenEpochs;
 import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
 import com.mohamed.lawyer.lawyer.LawyerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,6 +22,9 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
     private final LawyerRepository repository;
+    private final CacheWarmup cacheWarmup;
+    private final TokenEpochs tokenEpochs;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     public AuthenticationResponse register(RegisterRequest request){
         if(repository.findByEmail(request.email()).isPresent()){
@@ -28,7 +35,7 @@ public class AuthenticationService {
                 .firstName(request.firstName())
                 .lastName(request.lastName())
                 .email(request.email())
-                .password(passwordEncoder.encode(request.password()))
+                .password(passwordHashingExecutor.run(() -> passwordEncoder.encode(request.password())))
                 .build();
 
         repository.save(lawyer);
@@ -39,18 +46,28 @@ public class AuthenticationService {
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request){
-        authenticationManager.authenticate(
+        // Checks the hash, and rehashes it if outdated, on the bounded hashing pool
+        passwordHashingExecutor.run(() -> authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.email(),
                         request.password()
                 )
-        );
+        ));
 
         var user = repository.findByEmail(request.email()).orElseThrow();
+        cacheWarmup.warmUp(user);
         var jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
                 .token(jwtToken)
                 .build();
 
     }
+
+    /**
+     * Revoke every token issued to the connected lawyer, including the one of this request
+     */
+    public void logoutAll(Authentication connectedUser){
+        LawyerPrincipal lawyer = (LawyerPrincipal) connectedUser.getPrincipal();
+        tokenEpochs.revoke(lawyer.getId());
+    }
 }
@@ -1,5 +1,6 @@
 package com.mohamed.lawyer.config;
 
+import com.mohamed.lawyer.lawyer.Lawyer;
 import com.mohamed.lawyer.lawyer.LawyerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -12,17 +13,22 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
 
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final LawyerRepository repository;
+    private final PasswordHashingConfig passwordHashingConfig;
 
     @Bean
     public UserDetailsService userDetailsService(){
@@ -35,6 +41,7 @@ public class ApplicationConfig {
         DaoAuthenticationProvider authprovider = new DaoAuthenticationProvider();
         authprovider.setUserDetailsService(userDetailsService());
         authprovider.setPasswordEncoder(passwordEncoder());
+        authprovider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authprovider;
     }
 
@@ -43,9 +50,37 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * Hashes are stored as {@code {id}hash}. Hashes stored before the prefix existed are BCrypt.
+     * A hash of another algorithm or a lower cost than configured reports upgradeEncoding, and is rehashed on login.
+     */
     @Bean
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordHashingConfig.getBcryptStrength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()
+        );
+        if (!encoders.containsKey(passwordHashingConfig.getAlgorithm())) {
+            throw new IllegalArgumentException("Unsupported password hashing algorithm " + passwordHashingConfig.getAlgorithm());
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(passwordHashingConfig.getAlgorithm(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Stores the new hash when a successful login upgraded an outdated one
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(){
+        return (user, newPassword) -> {
+            Lawyer lawyer = repository.findByEmail(user.getUsername())
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + user.getUsername()));
+            lawyer.setPassword(newPassword);
+            return repository.save(lawyer);
+        };
     }
 
     @Bean
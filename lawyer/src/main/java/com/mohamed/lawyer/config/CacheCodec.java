@@ -0,0 +1,6 @@
+package com.mohamed.lawyer.config;
+
+public enum CacheCodec {
+    JSON,
+    SMILE
+}
@@ -0,0 +1,21 @@
+package com.mohamed.lawyer.config;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Value stored by {@link TwoLevelCache}, with the time from which a read should refresh it
+ *
+ * @param value Cached value
+ * @param refreshAt Epoch millis from which the entry is refreshed ahead of its expiry
+ */
+public record CacheEntry(Object value, long refreshAt) implements Cache.ValueWrapper {
+
+    @Override
+    public Object get() {
+        return value;
+    }
+
+    public boolean isRefreshDue() {
+        return System.currentTimeMillis() >= refreshAt;
+    }
+}
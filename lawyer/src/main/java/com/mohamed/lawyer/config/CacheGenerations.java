@@ -0,0 +1,67 @@
+package com.mohamed.lawyer.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generation counters of cache namespaces, kept in Redis.
+ * The generation is part of every key of the namespace, so invalidating the whole namespace is a single INCR
+ * and the old entries are never read again and expire with their TTL.
+ * Generations are cached on each node and dropped through a Redis channel when another node bumps one.
+ */
+@Component
+@Slf4j
+public class CacheGenerations implements MessageListener {
+
+    private static final String KEY_PREFIX = "cache:generation:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final NearCacheConfig config;
+    private final Cache<String, Long> local;
+
+    public CacheGenerations(StringRedisTemplate redisTemplate, NearCacheConfig config) {
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+    }
+
+    public long current(String namespace) {
+        return local.get(namespace, ns -> {
+            String generation = redisTemplate.opsForValue().get(KEY_PREFIX + ns);
+            return generation == null ? 0L : Long.parseLong(generation);
+        });
+    }
+
+    /**
+     * Move the namespace to a new generation, which invalidates all its entries on every node
+     *
+     * @return The new generation, -1 if Redis did not return it
+     */
+    public long bump(String namespace) {
+        Long generation = redisTemplate.opsForValue().increment(KEY_PREFIX + namespace);
+        if (generation != null) local.put(namespace, generation);
+
+        try {
+            redisTemplate.convertAndSend(config.getGenerationChannel(), namespace);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the local TTL
+            log.warn("Failed to publish generation of cache namespace {}", namespace, e);
+        }
+        return generation == null ? -1 : generation;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        local.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
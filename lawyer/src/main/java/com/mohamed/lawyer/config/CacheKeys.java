@@ -0,0 +1,67 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Cache keys namespaced by the connected lawyer, as {@code <lawyerId>:g<generation>:<dimension>[:<value>]},
+ * so a lawyer never reads another lawyer's cached entries and all of a lawyer's entries of a cache
+ * are invalidated at once by moving to the next {@link CacheGenerations generation}.
+ * Used from cache annotations as {@code key = "@cacheKeys.lawyer(#root.caches[0].name, 'status', #status)"}.
+ */
+@Component("cacheKeys")
+@RequiredArgsConstructor
+public class CacheKeys {
+
+    private static final String SEPARATOR = ":";
+
+    private final CacheGenerations generations;
+
+    /**
+     * Key of the connected lawyer's entry for a query dimension
+     *
+     * @param cacheName Cache the key belongs to
+     * @param dimension Query dimension, e.g. {@code all} or {@code status}
+     * @param values Query arguments
+     */
+    public String lawyer(String cacheName, String dimension, Object... values) {
+        Long lawyerId = currentLawyerId();
+        String key = lawyerId + SEPARATOR + "g" + generations.current(namespace(cacheName, lawyerId)) + SEPARATOR + dimension;
+        if (values.length == 0) return key;
+        return key + SEPARATOR + Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+    }
+
+    /**
+     * Current generation of the lawyer's entries in the cache
+     */
+    public long generation(String cacheName, Long lawyerId) {
+        return generations.current(namespace(cacheName, lawyerId));
+    }
+
+    /**
+     * Invalidate every entry of the lawyer in the cache
+     *
+     * @return The lawyer's new generation in the cache
+     */
+    public long invalidateLawyer(String cacheName, Long lawyerId) {
+        return generations.bump(namespace(cacheName, lawyerId));
+    }
+
+    private static String namespace(String cacheName, Long lawyerId) {
+        return cacheName + SEPARATOR + lawyerId;
+    }
+
+    public static Long currentLawyerId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof LawyerPrincipal lawyer)) {
+            throw new IllegalStateException("No connected lawyer");
+        }
+        return lawyer.getId();
+    }
+}
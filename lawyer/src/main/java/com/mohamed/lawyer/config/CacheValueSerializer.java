@@ -0,0 +1,125 @@
+package com.mohamed.lawyer.config;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Cache value serializer writing Jackson JSON or Smile (binary JSON) with type information,
+ * LZ4 compressed when the encoded value reaches a size threshold.
+ * Every value starts with a one byte header telling whether the rest is compressed.
+ * Type ids are written for values of non-final declared types only, values are written as {@code Object}
+ * so the root value always carries its type.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte PLAIN = 0;
+    private static final byte LZ4 = 1;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final int compressionThreshold;
+
+    /**
+     * @param codec Encoding of the values
+     * @param compressionThreshold Encoded size in bytes from which values are compressed, negative to never compress
+     */
+    public CacheValueSerializer(CacheCodec codec, int compressionThreshold) {
+        this.mapper = mapper(codec == CacheCodec.SMILE ? smileFactory() : new JsonFactory());
+        this.writer = mapper.writerFor(Object.class);
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) return new byte[0];
+
+        byte[] encoded;
+        try {
+            encoded = writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value", e);
+        }
+
+        if (compressionThreshold < 0 || encoded.length < compressionThreshold) {
+            byte[] plain = new byte[encoded.length + 1];
+            plain[0] = PLAIN;
+            System.arraycopy(encoded, 0, plain, 1, encoded.length);
+            return plain;
+        }
+
+        byte[] compressed = new byte[1 + Integer.BYTES + COMPRESSOR.maxCompressedLength(encoded.length)];
+        ByteBuffer.wrap(compressed).put(LZ4).putInt(encoded.length);
+        int length = COMPRESSOR.compress(encoded, 0, encoded.length, compressed, 1 + Integer.BYTES);
+        return Arrays.copyOf(compressed, 1 + Integer.BYTES + length);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) return null;
+
+        try {
+            if (bytes[0] == PLAIN) {
+                return mapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+            }
+            if (bytes[0] == LZ4) {
+                int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+                byte[] encoded = DECOMPRESSOR.decompress(bytes, 1 + Integer.BYTES, length);
+                return mapper.readValue(encoded, Object.class);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+        throw new SerializationException("Unknown cache value header " + bytes[0]);
+    }
+
+    private static SmileFactory smileFactory() {
+        // Repeated class names and values (e.g. statuses) are written once and referenced after
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        mapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.mohamed.lawyer.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.time.")
+                        .allowIfSubType("java.lang.")
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY
+        );
+        mapper.registerModule(new Jdk8Module());
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return mapper;
+    }
+}
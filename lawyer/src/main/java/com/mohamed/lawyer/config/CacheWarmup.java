@@ -0,0 +1,131 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawsuit.LawsuitRepository;
+import com.mohamed.lawyer.lawsuit.LawsuitService;
+import com.mohamed.lawyer.lawsuit.Status;
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import com.mohamed.lawyer.logs.LogsService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads a lawyer's cached lawsuit lists, status groupings and logs in the background,
+ * on login and optionally for the most recently active lawyers after startup.
+ * Goes through the cached service methods, so already cached entries cost a cache read.
+ * Runs on a small bounded pool, a warm-up that does not fit in the queue is dropped.
+ */
+@Component
+@Slf4j
+public class CacheWarmup {
+
+    private final CacheWarmupConfig config;
+    private final LawsuitService lawsuitService;
+    private final LogsService logsService;
+    private final LawsuitRepository lawsuitRepository;
+    private final LawyerRepository lawyerRepository;
+    private final ThreadPoolExecutor executor;
+
+    // Lawyers queued or being warmed up, repeated logins don't queue them again
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public CacheWarmup(CacheWarmupConfig config,
+                       LawsuitService lawsuitService,
+                       LogsService logsService,
+                       LawsuitRepository lawsuitRepository,
+                       LawyerRepository lawyerRepository) {
+        this.config = config;
+        this.lawsuitService = lawsuitService;
+        this.logsService = logsService;
+        this.lawsuitRepository = lawsuitRepository;
+        this.lawyerRepository = lawyerRepository;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.getThreads(), config.getThreads(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-warmup-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    /**
+     * Queue a warm-up of the lawyer's caches
+     */
+    public void warmUp(Lawyer lawyer) {
+        if (!config.isEnabled() || !pending.add(lawyer.getId())) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    warmUpNow(lawyer);
+                } finally {
+                    pending.remove(lawyer.getId());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(lawyer.getId());
+            log.debug("Cache warm-up queue full, skipping lawyer {}", lawyer.getId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!config.isEnabled() || config.getStartupLawyers() < 1) return;
+        Thread.ofVirtual().name("cache-warmup-startup").start(() -> {
+            try {
+                List<Long> lawyerIds = lawsuitRepository.findRecentlyActiveLawyerIds(PageRequest.of(0, config.getStartupLawyers()));
+                lawyerRepository.findAllById(lawyerIds).forEach(this::warmUp);
+            } catch (RuntimeException e) {
+                log.error("Failed to start cache warm-up", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Repositories scope their queries with the connected lawyer, so the warm-up runs as the lawyer
+     */
+    private void warmUpNow(Lawyer lawyer) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        LawyerPrincipal principal = LawyerPrincipal.of(lawyer);
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        SecurityContextHolder.setContext(context);
+        try {
+            lawsuitService.getAllLawsuits();
+            for (Status status : Status.values()) {
+                lawsuitService.getLawsuitByStatus(status);
+            }
+            logsService.getAllLogs();
+        } catch (RuntimeException e) {
+            log.warn("Failed to warm up caches of lawyer {}", lawyer.getId(), e);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
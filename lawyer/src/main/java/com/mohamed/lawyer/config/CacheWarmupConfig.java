@@ -0,0 +1,20 @@
+package com.mohamed.lawyer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.warmup")
+@Data
+public class CacheWarmupConfig {
+
+    private boolean enabled = true;
+
+    // Warm-up workers and pending warm-ups, logins beyond the queue are not warmed up
+    private int threads = 2;
+    private int queueCapacity = 200;
+
+    // Most recently active lawyers warmed up after startup, 0 to disable
+    private int startupLawyers = 0;
+}
@@ -3,6 +3,9 @@ package com.mohamed.lawyer.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Configuration
 @ConfigurationProperties(prefix = "google.drive")
@@ -14,6 +17,23 @@ public class GoogleDriveConfig {
     private String defaultFolderId;
     private int maxResults = 50;
 
+    // Uploads are streamed to Drive in resumable chunks of this size, each upload buffers one chunk.
+    // Rounded down to a multiple of 256KB as the Drive API requires
+    private DataSize uploadChunkSize = DataSize.ofMegabytes(8);
+
+    // Uploads running at once, which bounds the heap used by upload buffers to about this many chunks
+    private int maxConcurrentUploads = 4;
+
+    // Downloaded content is kept on local disk up to this many bytes, least recently used files are deleted first.
+    // Zero disables the cache
+    private String contentCacheDirectory = System.getProperty("java.io.tmpdir") + "/lawyer-drive-cache";
+    private DataSize contentCacheMaxSize = DataSize.ofGigabytes(1);
+
+    // File metadata cached in memory. Changes made through this application invalidate it,
+    // the TTL bounds how long a change made directly in Drive goes unseen
+    private long metadataCacheMaximumSize = 10_000;
+    private Duration metadataCacheTtl = Duration.ofMinutes(5);
+
     // Folder IDs for different document types
     private String contractsFolderId;
     private String evidenceFolderId;
@@ -1,6 +1,9 @@
 package com.mohamed.lawyer.config;
 
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -12,16 +15,32 @@ import org.springframework.beans.factory.annotation.Value;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies the JWTs. The signing key and the parser are built once, they are immutable and thread-safe.
+ */
 @Service
 public class JwtService {
-    @Value("${spring.application.security.jwt.secret-key}")
-    private String SECRET_KEY;
 
-    @Value("${spring.application.security.jwt.expiration}")
-    private Long JWT_EXPIRATION_MS;
+    private static final String ID_CLAIM = "id";
+    private static final String ROLES_CLAIM = "roles";
+    private static final String EPOCH_CLAIM = "epoch";
+
+    private final Long JWT_EXPIRATION_MS;
+    private final Key signInKey;
+    private final JwtParser parser;
+
+    public JwtService(@Value("${spring.application.security.jwt.secret-key}") String secretKey,
+                      @Value("${spring.application.security.jwt.expiration}") Long jwtExpirationMs) {
+        this.JWT_EXPIRATION_MS = jwtExpirationMs;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -36,6 +55,18 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Token carrying the claims {@link #extractPrincipal(String)} builds the principal from
+     */
+    public String generateToken(Lawyer lawyer) {
+        LawyerPrincipal principal = LawyerPrincipal.of(lawyer);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ID_CLAIM, principal.getId());
+        claims.put(ROLES_CLAIM, principal.getRoles());
+        claims.put(EPOCH_CLAIM, principal.getTokenEpoch());
+        return generateToken(claims, lawyer);
+    }
+
     public String generateToken(Map<String, Object> extractClaims,
                                 UserDetails userDetails) {
         return Jwts.builder()
@@ -43,34 +74,39 @@ public class JwtService {
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION_MS))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String userName = extractUsername(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
+    /**
+     * Verify the token once and build the principal from its claims. This is the only parse of a request's token.
+     *
+     * @return The principal, or null for a token without the lawyer claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     */
+    public LawyerPrincipal extractPrincipal(String token) {
+        Claims claims = extractAllClaims(token);
+        Number id = claims.get(ID_CLAIM, Number.class);
+        Number epoch = claims.get(EPOCH_CLAIM, Number.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (id == null || epoch == null || roles == null) return null;
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return new LawyerPrincipal(
+                id.longValue(),
+                claims.getSubject(),
+                roles.stream().map(String::valueOf).toList(),
+                epoch.intValue()
+        );
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Boolean isTokenValid(String token, UserDetails userDetails) {
+        final Claims claims = extractAllClaims(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
@@ -0,0 +1,27 @@
+package com.mohamed.lawyer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "lawsuit.search")
+@Data
+public class LawsuitSearchConfig {
+
+    // Fuzzy candidates taken from the trigram index per search, best overlap first
+    private int maxFuzzyCandidates = 2000;
+
+    // Candidate count from which fuzzy scoring runs on the fuzzy scoring pool
+    private int parallelThreshold = 512;
+    private int parallelChunkSize = 128;
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    // Search responses kept per index shard, least recently used dropped first
+    private int maxCachedResults = 64;
+
+    // Per-lawyer index shards unused for this long are dropped and rebuilt on next use
+    private Duration idleShardTtl = Duration.ofMinutes(30);
+}
@@ -0,0 +1,26 @@
+package com.mohamed.lawyer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.near")
+@Data
+public class NearCacheConfig {
+
+    // Entries kept in each cache's in-process L1
+    private long maximumSize = 10_000;
+
+    // Bounds how long a node can serve a stale entry if an invalidation message is lost
+    private Duration ttl = Duration.ofMinutes(5);
+
+    // Cross-node single-flight lock: how long a load may hold it and how often waiting nodes check for the value
+    private Duration lockTimeout = Duration.ofSeconds(10);
+    private Duration lockPollInterval = Duration.ofMillis(50);
+
+    private String invalidationChannel = "cache:invalidation";
+    private String generationChannel = "cache:generation";
+}
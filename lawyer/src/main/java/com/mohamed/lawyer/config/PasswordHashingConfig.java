@@ -0,0 +1,19 @@
+package com.mohamed.lawyer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "security.password")
+@Data
+public class PasswordHashingConfig {
+
+    // Algorithm new hashes are created with: bcrypt or pbkdf2. Hashes of another algorithm or cost are upgraded on login
+    private String algorithm = "bcrypt";
+    private int bcryptStrength = 10;
+
+    // Password hashes computed at once, and logins waiting for a slot before they are rejected with 503
+    private int maxConcurrentHashes = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private int queueCapacity = 100;
+}
@@ -0,0 +1,48 @@
+package com.mohamed.lawyer.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "cache.redis")
+@Data
+public class RedisCacheConfig {
+
+    // Applies to every cache, fields set in caches.<name> override it
+    private Spec defaults = new Spec(Duration.ofMinutes(10), CacheCodec.SMILE, 1024, Duration.ZERO);
+
+    private Map<String, Spec> caches = new HashMap<>();
+
+    /**
+     * Settings of the named cache, unset fields taken from the defaults
+     */
+    public Spec spec(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        if (spec == null) return defaults;
+        return new Spec(
+                spec.getTtl() != null ? spec.getTtl() : defaults.getTtl(),
+                spec.getCodec() != null ? spec.getCodec() : defaults.getCodec(),
+                spec.getCompressionThreshold() != null ? spec.getCompressionThreshold() : defaults.getCompressionThreshold(),
+                spec.getRefreshAhead() != null ? spec.getRefreshAhead() : defaults.getRefreshAhead()
+        );
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Spec {
+        private Duration ttl;
+        private CacheCodec codec;
+        // Encoded size in bytes from which values are LZ4 compressed, negative to never compress
+        private Integer compressionThreshold;
+        // Entries read within this window before their expiry are reloaded in the background, zero to disable
+        private Duration refreshAhead;
+    }
+}
@@ -9,19 +9,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
@@ -86,38 +91,63 @@ public class RedisConfig {
     }
 
     /**
-     * Configure CacheManager with matching serialization
-     * IMPORTANT: Must use same serialization as RedisTemplate
+     * Configure CacheManager with per cache TTL and value codec from {@link RedisCacheConfig}
+     * Redis is the L2 behind an in-process L1, see {@link TwoLevelCacheManager}
      */
     @Bean
-    public CacheManager cacheManager(
+    public TwoLevelCacheManager cacheManager(
             RedisConnectionFactory connectionFactory,
-            ObjectMapper redisObjectMapper) {
+            StringRedisTemplate stringRedisTemplate,
+            NearCacheConfig nearCacheConfig,
+            RedisCacheConfig redisCacheConfig) {
 
-        // Create the same JSON serializer
-        GenericJackson2JsonRedisSerializer jackson2JsonRedisSerializer =
-                new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        // Bulk invalidation goes through CacheGenerations, SCAN keeps a full clear() from blocking Redis like KEYS
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000));
+
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        redisCacheConfig.getCaches().keySet()
+                .forEach(name -> cacheConfigurations.put(name, cacheConfiguration(redisCacheConfig.spec(name))));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(cacheConfiguration(redisCacheConfig.getDefaults()))
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, nearCacheConfig, redisCacheConfig, stringRedisTemplate);
+    }
 
-        // Configure cache serialization context
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                // Set TTL to 10 minutes
-                .entryTtl(Duration.ofMinutes(10))
+    private static RedisCacheConfiguration cacheConfiguration(RedisCacheConfig.Spec spec) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getTtl())
                 // Don't cache null values
                 .disableCachingNullValues()
-                // Set key prefix
-                // Configure serialization for keys
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
                                 new StringRedisSerializer()
                         )
                 )
-                // Configure serialization for values
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
-                                jackson2JsonRedisSerializer
+                                new CacheValueSerializer(spec.getCodec(), spec.getCompressionThreshold())
                         )
                 );
+    }
 
-        return RedisCacheManager.create(connectionFactory);
+    /**
+     * Listens for L1 invalidations published by the other nodes
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TwoLevelCacheManager cacheManager,
+            CacheGenerations cacheGenerations,
+            NearCacheConfig nearCacheConfig) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(nearCacheConfig.getInvalidationChannel()));
+        container.addMessageListener(cacheGenerations, new ChannelTopic(nearCacheConfig.getGenerationChannel()));
+        return container;
     }
 }
@@ -26,6 +26,7 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(authz -> {
                     authz
                             // Auth endpoints
+                            .requestMatchers("/auth/logout-all").authenticated()
                             .requestMatchers(HttpMethod.POST, "/auth/**").permitAll()
                             .requestMatchers(HttpMethod.GET, "/auth/**").permitAll()
                             .requestMatchers("/auth/**").permitAll()
@@ -0,0 +1,47 @@
+package com.mohamed.lawyer.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Revocation check for stateless JWTs: a token is accepted only while it carries the lawyer's current token epoch.
+ * Epochs are cached, so a revocation reaches other nodes within the cache TTL and costs one small query
+ * per lawyer per TTL instead of a user load per request.
+ */
+@Component
+public class TokenEpochs {
+
+    // Lawyer that no longer exists, no token matches it
+    private static final int NO_EPOCH = -1;
+
+    private final LawyerRepository repository;
+    private final Cache<Long, Integer> epochs;
+
+    public TokenEpochs(LawyerRepository repository,
+                       @Value("${spring.application.security.jwt.epoch-cache-ttl:PT30S}") Duration ttl) {
+        this.repository = repository;
+        this.epochs = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean isCurrent(LawyerPrincipal principal) {
+        int epoch = epochs.get(principal.getId(), id -> repository.findTokenEpochById(id).orElse(NO_EPOCH));
+        return epoch == principal.getTokenEpoch();
+    }
+
+    /**
+     * Reject every token issued so far to the lawyer
+     */
+    public void revoke(Long lawyerId) {
+        repository.incrementTokenEpoch(lawyerId);
+        epochs.invalidate(lawyerId);
+    }
+}
@@ -0,0 +1,230 @@
+package com.mohamed.lawyer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache with an in-process L1 in front of a shared L2 (Redis).
+ * Reads are served from L1 when possible, writes go to both levels and are broadcast
+ * so every other node drops its L1 copy.
+ * Loads through {@link #get(Object, Callable)} ({@code @Cacheable(sync = true)}) are single-flight:
+ * one loader per key on each node and a short-lived Redis lock per key across nodes.
+ * With a refresh-ahead window, entries read close to their expiry are reloaded in the background.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+
+    private final Map<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+    private final Set<String> refreshes = ConcurrentHashMap.newKeySet();
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<String, CacheEntry> local,
+                  Cache remote,
+                  TwoLevelCacheManager manager,
+                  RedisCacheConfig.Spec spec) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.ttl = spec.getTtl();
+        this.refreshAhead = spec.getRefreshAhead();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return entry(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        // No type means the value is returned unchecked
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEntry entry = entry(key);
+        if (entry != null) {
+            if (entry.isRefreshDue()) refreshInBackground(key, valueLoader);
+            return (T) entry.get();
+        }
+
+        String localKey = localKey(key);
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            // Another request of this node is already loading the key
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            Object value = loadAcrossNodes(key, valueLoader, false);
+            load.complete(value);
+            return (T) value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(localKey, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheEntry entry = new CacheEntry(value, refreshAt());
+        remote.put(key, entry);
+        local.put(localKey(key), entry);
+        manager.publish(TwoLevelCacheManager.Invalidation.KEY, name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        manager.publish(TwoLevelCacheManager.Invalidation.KEY, name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publish(TwoLevelCacheManager.Invalidation.ALL, name, "");
+    }
+
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void evictLocalAll() {
+        local.invalidateAll();
+    }
+
+    private CacheEntry entry(Object key) {
+        String localKey = localKey(key);
+        CacheEntry entry = local.getIfPresent(localKey);
+        if (entry != null) return entry;
+
+        entry = remoteEntry(key);
+        if (entry != null) local.put(localKey, entry);
+        return entry;
+    }
+
+    private CacheEntry remoteEntry(Object key) {
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) return null;
+        // Values written before entries carried their refresh time
+        return wrapper.get() instanceof CacheEntry entry ? entry : new CacheEntry(wrapper.get(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Load the value while holding the key's Redis lock, or wait for the node holding it to store the value.
+     * The lock expires on its own, so a node that dies while loading only delays the others.
+     *
+     * @param refresh Background refresh, which gives up instead of waiting when another node holds the lock
+     * @return The loaded value, or null for a refresh that gave up
+     */
+    private Object loadAcrossNodes(Object key, Callable<?> valueLoader, boolean refresh) throws Exception {
+        String lockKey = "cache:lock:" + name + "::" + localKey(key);
+        String token = UUID.randomUUID().toString();
+        Duration lockTimeout = manager.getConfig().getLockTimeout();
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+
+        while (true) {
+            if (manager.tryLock(lockKey, token, lockTimeout)) {
+                try {
+                    // Another node may have stored the value while this one waited for the lock
+                    CacheEntry stored = remoteEntry(key);
+                    if (stored != null && (!refresh || !stored.isRefreshDue())) {
+                        local.put(localKey(key), stored);
+                        return stored.get();
+                    }
+                    Object value = valueLoader.call();
+                    put(key, value);
+                    return value;
+                } finally {
+                    manager.unlock(lockKey, token);
+                }
+            }
+            if (refresh) return null;
+
+            CacheEntry stored = remoteEntry(key);
+            if (stored != null) {
+                local.put(localKey(key), stored);
+                return stored.get();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                // The lock holder is too slow, load without the lock rather than fail the request
+                Object value = valueLoader.call();
+                put(key, value);
+                return value;
+            }
+            Thread.sleep(manager.getConfig().getLockPollInterval().toMillis());
+        }
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        if (!refreshes.add(localKey)) return;
+
+        // Loaders read the connected lawyer from the security context
+        Runnable task = new DelegatingSecurityContextRunnable(() -> {
+            try {
+                loadAcrossNodes(key, valueLoader, true);
+            } catch (Exception e) {
+                log.warn("Failed to refresh cache {} entry {}", name, localKey, e);
+            } finally {
+                refreshes.remove(localKey);
+            }
+        }, SecurityContextHolder.getContext());
+        Thread.ofVirtual().name("cache-refresh-" + name).start(task);
+    }
+
+    private long refreshAt() {
+        if (ttl == null || ttl.isZero() || refreshAhead == null || refreshAhead.isZero()) return Long.MAX_VALUE;
+        return System.currentTimeMillis() + ttl.minus(refreshAhead).toMillis();
+    }
+
+    // Same key representation as the Redis cache key, so invalidations can name it across nodes
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
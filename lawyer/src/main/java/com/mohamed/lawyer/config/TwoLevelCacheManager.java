@@ -0,0 +1,127 @@
+package com.mohamed.lawyer.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} putting a size-bounded Caffeine (W-TinyLFU) L1 in front of every cache of the Redis manager.
+ * Writes and evictions are published on a Redis channel and every other node drops the entry from its L1.
+ * Also provides the per-key Redis locks used for single-flight loading.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    // Only the lock owner may release it, an expired lock may already belong to another node
+    private static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class
+    );
+
+    // Messages published by this node are ignored, its L1 is already up to date
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final CacheManager remote;
+    private final NearCacheConfig config;
+    private final RedisCacheConfig remoteConfig;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote,
+                                NearCacheConfig config,
+                                RedisCacheConfig remoteConfig,
+                                StringRedisTemplate redisTemplate) {
+        this.remote = remote;
+        this.config = config;
+        this.remoteConfig = remoteConfig;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remoteCache = remote.getCache(cacheName);
+            if (remoteCache == null) return null;
+            return new TwoLevelCache(
+                    cacheName,
+                    Caffeine.newBuilder()
+                            .maximumSize(config.getMaximumSize())
+                            .expireAfterWrite(config.getTtl())
+                            .build(),
+                    remoteCache,
+                    this,
+                    remoteConfig.spec(cacheName)
+            );
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    NearCacheConfig getConfig() {
+        return config;
+    }
+
+    boolean tryLock(String lockKey, String token, Duration timeout) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, token, timeout));
+    }
+
+    void unlock(String lockKey, String token) {
+        try {
+            redisTemplate.execute(UNLOCK, List.of(lockKey), token);
+        } catch (RuntimeException e) {
+            // The lock expires on its own
+            log.warn("Failed to release cache lock {}", lockKey, e);
+        }
+    }
+
+    /**
+     * @param target Key to drop, ignored for {@link Invalidation#ALL}
+     */
+    void publish(Invalidation invalidation, String cacheName, String target) {
+        String message = String.join(String.valueOf(SEPARATOR), nodeId, invalidation.name(), cacheName, target);
+        try {
+            redisTemplate.convertAndSend(config.getInvalidationChannel(), message);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the L1 TTL
+            log.warn("Failed to publish invalidation of cache {}", cacheName, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR), 4);
+        if (parts.length < 4 || parts[0].equals(nodeId)) return;
+
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) return;
+
+        switch (Invalidation.valueOf(parts[1])) {
+            case KEY -> cache.evictLocal(parts[3]);
+            case ALL -> cache.evictLocalAll();
+        }
+    }
+
+    enum Invalidation {
+        KEY,
+        ALL
+    }
+}
@@ -1,6 +1,7 @@
 package com.mohamed.lawyer.lawsuit;
 
 import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.utils.ArabicNormalizer;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -49,4 +50,23 @@ public class Lawsuit  {
     private Lawyer lawyer;
 
     private String folderId;
+
+    // Bumped by every update, single field updates compare it with the cached snapshot's
+    @Version
+    private long version;
+
+    // Normalized, lower-cased copies used by search, maintained on every insert/update
+    private String normalizedName;
+
+    private String normalizedDescription;
+
+    private String normalizedClientName;
+
+    @PrePersist
+    @PreUpdate
+    public void normalizeSearchColumns() {
+        normalizedName = ArabicNormalizer.normalizeForSearch(name);
+        normalizedDescription = ArabicNormalizer.normalizeForSearch(description);
+        normalizedClientName = ArabicNormalizer.normalizeForSearch(clientName);
+    }
 }
@@ -81,8 +81,27 @@ public class LawsuitController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<LawsuitResponse>> searchLawsuits(@RequestParam String search, Authentication connectedUser){
-        return ResponseEntity.ok(service.getFulltextFuzzy(search, connectedUser));
+    public ResponseEntity<LawsuitSearchResponse> searchLawsuits(@RequestParam String search,
+                                                                @RequestParam(defaultValue = "20") int limit,
+                                                                @RequestParam(required = false) Double afterScore,
+                                                                @RequestParam(required = false) Long afterId,
+                                                                Authentication connectedUser){
+        return ResponseEntity.ok(service.getFulltextFuzzy(search, limit, afterScore, afterId, connectedUser));
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<String>> suggest(@RequestParam String search,
+                                                @RequestParam(defaultValue = "5") int limit,
+                                                Authentication connectedUser){
+        return ResponseEntity.ok(service.suggest(search, limit, connectedUser));
+    }
+
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<String>> typeahead(@RequestParam String prefix,
+                                                  @RequestParam(defaultValue = "CLIENT_NAME") TypeaheadField field,
+                                                  @RequestParam(defaultValue = "10") int limit,
+                                                  Authentication connectedUser){
+        return ResponseEntity.ok(service.typeahead(prefix, field, limit, connectedUser));
     }
 
     @PutMapping("/update/{lawsuitId}")
@@ -0,0 +1,120 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import com.mohamed.lawyer.utils.EditDistance;
+import com.mohamed.lawyer.utils.FuzzyUtils;
+import com.mohamed.lawyer.utils.TopK;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Fuzzy scoring of search candidates. Small candidate lists are scored on the caller thread,
+ * large ones are split into chunks scored on a dedicated bounded fork/join pool so big portfolios use every core
+ * without taking threads from the web server. Each chunk keeps its own top-K and the chunks are merged.
+ * Each chunk scores its candidates with a single edit distance engine, so scratch buffers are allocated per chunk
+ * rather than per candidate.
+ */
+@Component
+public class LawsuitFuzzyScorer {
+
+    private static final double MIN_FUZZY_SCORE = 0.1;
+
+    private final LawsuitSearchConfig config;
+    private final ForkJoinPool pool;
+
+    public LawsuitFuzzyScorer(LawsuitSearchConfig config) {
+        this.config = config;
+        this.pool = new ForkJoinPool(config.getParallelism(), LawsuitFuzzyScorer::newWorker, null, false);
+    }
+
+    /**
+     * Score the candidates against the query and keep the best ones
+     *
+     * @param normalizedQuery Query already normalized with {@link LawsuitSearchIndex#normalize(String)}
+     * @param candidates Candidates to score
+     * @param k Number of hits to keep
+     * @param accept Hits rejected by this filter are not kept
+     * @return The best {@code k} accepted hits scoring above the minimum fuzzy score
+     */
+    public TopK<SearchHit> score(String normalizedQuery,
+                                 List<LawsuitSearchIndex.Candidate> candidates,
+                                 int k,
+                                 Predicate<SearchHit> accept) {
+        ScoreTask task = new ScoreTask(normalizedQuery, candidates, 0, candidates.size(), k, accept);
+        if (candidates.size() < config.getParallelThreshold()) {
+            return task.compute();
+        }
+        return pool.invoke(task);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("lawsuit-fuzzy-" + worker.getPoolIndex());
+        return worker;
+    }
+
+    private static double score(EditDistance editDistance, String normalizedQuery, LawsuitSearchIndex.Candidate candidate) {
+        return Math.max(
+                FuzzyUtils.similarity(editDistance, normalizedQuery, candidate.name(), MIN_FUZZY_SCORE),
+                FuzzyUtils.substringSimilarity(editDistance, normalizedQuery, candidate.description(), MIN_FUZZY_SCORE)
+        );
+    }
+
+    private final class ScoreTask extends RecursiveTask<TopK<SearchHit>> {
+        private final String normalizedQuery;
+        private final List<LawsuitSearchIndex.Candidate> candidates;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final Predicate<SearchHit> accept;
+
+        ScoreTask(String normalizedQuery,
+                  List<LawsuitSearchIndex.Candidate> candidates,
+                  int from,
+                  int to,
+                  int k,
+                  Predicate<SearchHit> accept) {
+            this.normalizedQuery = normalizedQuery;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.accept = accept;
+        }
+
+        @Override
+        protected TopK<SearchHit> compute() {
+            if (to - from > config.getParallelChunkSize() && inForkJoinPool()) {
+                int middle = (from + to) >>> 1;
+                ScoreTask left = new ScoreTask(normalizedQuery, candidates, from, middle, k, accept);
+                left.fork();
+                TopK<SearchHit> hits = new ScoreTask(normalizedQuery, candidates, middle, to, k, accept).compute();
+                hits.offerAll(left.join());
+                return hits;
+            }
+
+            TopK<SearchHit> hits = new TopK<>(k, SearchHit.RANK);
+            EditDistance editDistance = new EditDistance();
+            for (int i = from; i < to; i++) {
+                LawsuitSearchIndex.Candidate candidate = candidates.get(i);
+                double score = score(editDistance, normalizedQuery, candidate);
+                if (score <= MIN_FUZZY_SCORE) continue;
+
+                SearchHit hit = new SearchHit(candidate.id(), score);
+                if (accept.test(hit)) hits.offer(hit);
+            }
+            return hits;
+        }
+    }
+}
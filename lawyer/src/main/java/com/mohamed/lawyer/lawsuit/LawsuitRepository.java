@@ -1,8 +1,12 @@
 package com.mohamed.lawyer.lawsuit;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,20 +22,84 @@ public interface LawsuitRepository extends JpaRepository<Lawsuit, Long> {
     @Query("SELECT l FROM Lawsuit l WHERE l.status = :status and l.lawyer.id = ?#{principal.getId()} and l.isDeleted = false")
     List<Lawsuit> findLawsuitByStatus(Status status);
 
-    @Query("SELECT l FROM Lawsuit l WHERE l.clientName LIKE CONCAT('%', :clientName, '%') and l.lawyer.id = ?#{principal.getId()}")
+    @Query(
+            value = "SELECT lawsuit.* FROM lawsuit" +
+                    " WHERE MATCH(lawsuit.normalized_client_name) AGAINST(:clientName IN BOOLEAN MODE)" +
+                    " AND lawsuit.lawyer_id = ?#{principal.getId()}" +
+                    " ORDER BY MATCH(lawsuit.normalized_client_name) AGAINST(:clientName IN BOOLEAN MODE) DESC",
+            nativeQuery = true
+    )
     List<Lawsuit> findLawsuitByClientName(String clientName);
 
-    @Query("SELECT l FROM Lawsuit l WHERE l.name LIKE CONCAT('%', :name, '%') and l.lawyer.id = ?#{principal.getId()} ")
+    @Query(
+            value = "SELECT lawsuit.* FROM lawsuit" +
+                    " WHERE MATCH(lawsuit.normalized_name) AGAINST(:name IN BOOLEAN MODE)" +
+                    " AND lawsuit.lawyer_id = ?#{principal.getId()}" +
+                    " ORDER BY MATCH(lawsuit.normalized_name) AGAINST(:name IN BOOLEAN MODE) DESC",
+            nativeQuery = true
+    )
     List<Lawsuit> findAllByLawsuitName(String name);
 
     @Query(
-            value = "SELECT  *, MATCH(lawsuit.name,lawsuit.description) AGAINST(:searchTerm IN BOOLEAN MODE) as relevance" +
+            value = "SELECT lawsuit.id AS id, MATCH(lawsuit.normalized_name, lawsuit.normalized_description) AGAINST(:searchTerm IN BOOLEAN MODE) AS relevance" +
                     " FROM lawsuit" +
-                    " WHERE MATCH(lawsuit.name, lawsuit.description) AGAINST(:searchTerm IN BOOLEAN MODE) AND  lawsuit.lawyer_id = :lawyerId " +
-                    " ORDER BY relevance DESC",
+                    " WHERE MATCH(lawsuit.normalized_name, lawsuit.normalized_description) AGAINST(:searchTerm IN BOOLEAN MODE) AND lawsuit.lawyer_id = :lawyerId",
             nativeQuery = true
     )
-    List<Lawsuit> findByFullTextSearch(String searchTerm, Long lawyerId);
+    List<LawsuitScore> findByFullTextSearch(String searchTerm, Long lawyerId);
+
+    @Query("SELECT l FROM Lawsuit l WHERE (l.normalizedName IS NULL AND l.name IS NOT NULL)" +
+            " OR (l.normalizedDescription IS NULL AND l.description IS NOT NULL)" +
+            " OR (l.normalizedClientName IS NULL AND l.clientName IS NOT NULL)")
+    List<Lawsuit> findWithoutSearchColumns(Pageable pageable);
+
+    @Query("SELECT l.lawyer.id FROM Lawsuit l WHERE l.isDeleted = false GROUP BY l.lawyer.id ORDER BY MAX(l.lastModified) DESC")
+    List<Long> findRecentlyActiveLawyerIds(Pageable pageable);
+
+    // Single field updates, one UPDATE each without reading the row.
+    // Applied only if the row is still at the caller's version, which they bump, and to the owner's lawsuit:
+    // they return 0 when the lawsuit changed since, is missing or belongs to another lawyer.
+    // Bulk updates skip @PreUpdate, the normalized search columns are set explicitly.
 
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Lawsuit l SET l.status = :status, l.lastModified = :lastModified, l.version = l.version + 1" +
+            " WHERE l.id = :id AND l.lawyer.id = :lawyerId AND l.version = :version")
+    int updateStatus(Long id, Long lawyerId, long version, Status status, LocalDate lastModified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Lawsuit l SET l.notes = :notes, l.lastModified = :lastModified, l.version = l.version + 1" +
+            " WHERE l.id = :id AND l.lawyer.id = :lawyerId AND l.version = :version")
+    int updateNotes(Long id, Long lawyerId, long version, String notes, LocalDate lastModified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Lawsuit l SET l.description = :description, l.normalizedDescription = :normalizedDescription," +
+            " l.lastModified = :lastModified, l.version = l.version + 1" +
+            " WHERE l.id = :id AND l.lawyer.id = :lawyerId AND l.version = :version")
+    int updateDescription(Long id, Long lawyerId, long version, String description, String normalizedDescription, LocalDate lastModified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Lawsuit l SET l.clientName = :clientName, l.normalizedClientName = :normalizedClientName," +
+            " l.lastModified = :lastModified, l.version = l.version + 1" +
+            " WHERE l.id = :id AND l.lawyer.id = :lawyerId AND l.version = :version")
+    int updateClientName(Long id, Long lawyerId, long version, String clientName, String normalizedClientName, LocalDate lastModified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Lawsuit l SET l.clientPhone = :clientPhone, l.lastModified = :lastModified, l.version = l.version + 1" +
+            " WHERE l.id = :id AND l.lawyer.id = :lawyerId AND l.version = :version")
+    int updateClientPhone(Long id, Long lawyerId, long version, String clientPhone, LocalDate lastModified);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(
+            value = "UPDATE lawsuit SET is_deleted = NOT is_deleted, last_modified = :lastModified, version = version + 1" +
+                    " WHERE id = :id AND lawyer_id = :lawyerId AND version = :version",
+            nativeQuery = true
+    )
+    int toggleDeleted(Long id, Long lawyerId, long version, LocalDate lastModified);
 
 }
@@ -0,0 +1,10 @@
+package com.mohamed.lawyer.lawsuit;
+
+/**
+ * Id and full-text relevance of a lawsuit, without loading the entity
+ */
+public interface LawsuitScore {
+    Long getId();
+
+    Double getRelevance();
+}
@@ -0,0 +1,47 @@
+package com.mohamed.lawyer.lawsuit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the normalized search columns of lawsuits written before they existed.
+ * Runs once in the background after startup, in batches, and is a single empty query once every row is done.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LawsuitSearchColumnsBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final LawsuitRepository repository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("lawsuit-search-backfill").start(this::backfill);
+    }
+
+    public void backfill() {
+        int total = 0;
+        try {
+            List<Lawsuit> batch;
+            // Fixed rows leave the result set, so the first page is always the next batch
+            while (!(batch = repository.findWithoutSearchColumns(PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+                batch.forEach(Lawsuit::normalizeSearchColumns);
+                repository.saveAll(batch);
+                total += batch.size();
+            }
+            if (total > 0) {
+                log.info("Backfilled normalized search columns for {} lawsuits", total);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to backfill normalized search columns after {} lawsuits", total, e);
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.CacheKeys;
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import com.mohamed.lawyer.utils.ArabicNormalizer;
+import com.mohamed.lawyer.utils.EditDistance;
+import com.mohamed.lawyer.utils.SymSpell;
+import com.mohamed.lawyer.utils.TernarySearchTree;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-memory character trigram index of lawsuit names and descriptions, one shard per lawyer.
+ * Shards are built lazily on the first search so fuzzy candidates come from posting lists instead of a full portfolio scan.
+ * A shard is built at the lawyer's generation of the {@code lawsuits} cache, which every lawsuit write bumps on any node:
+ * writes made on this node are applied to the shard, a shard behind the current generation is rebuilt from the DB.
+ * Each shard also holds a {@link SymSpell} vocabulary of the name, client name and description tokens for spelling suggestions,
+ * and {@link TernarySearchTree}s of the case and client names for typeahead. Shards not used for a while are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class LawsuitSearchIndex {
+
+    // Cache whose per-lawyer generation the shards follow
+    private static final String GENERATION_CACHE = "lawsuits";
+
+    private static final int GRAM_SIZE = 3;
+
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+    // Shorter tokens are too ambiguous to correct
+    private static final int MIN_CORRECTABLE_LENGTH = 3;
+
+    private final LawsuitSearchConfig config;
+    private final CacheKeys cacheKeys;
+
+    // Futures so a shard is loaded once, without holding the map's bin lock during the DB query
+    private final Map<Long, CompletableFuture<Shard>> shards = new ConcurrentHashMap<>();
+
+    /**
+     * Return the candidates sharing at least one trigram with the query
+     *
+     * @param lawyerId Owner of the shard
+     * @param normalizedQuery Query already normalized with {@link #normalize(String)}
+     * @param maxCandidates Maximum number of candidates to return, best overlap first
+     * @param loader Loads the lawyer's lawsuits when the shard is not built yet
+     * @return Candidates ordered by the number of shared trigrams
+     */
+    public List<Candidate> candidates(Long lawyerId,
+                                      String normalizedQuery,
+                                      int maxCandidates,
+                                      Supplier<List<Lawsuit>> loader) {
+        Shard shard = shard(lawyerId, loader);
+        return shard.candidates(normalizedQuery, maxCandidates);
+    }
+
+    /**
+     * Dictionary words close to the query. A single word query returns its closest words,
+     * a longer query returns the query with each word corrected.
+     *
+     * @param lawyerId Owner of the shard
+     * @param normalizedQuery Query already normalized with {@link #normalize(String)}
+     * @param maxSuggestions Maximum number of suggestions to return
+     * @param loader Loads the lawyer's lawsuits when the shard is not built yet
+     * @return Suggestions closest first, empty when nothing is close
+     */
+    public List<String> suggest(Long lawyerId,
+                                String normalizedQuery,
+                                int maxSuggestions,
+                                Supplier<List<Lawsuit>> loader) {
+        Shard shard = shard(lawyerId, loader);
+        String[] tokens = tokens(normalizedQuery);
+        if (tokens.length == 0) return List.of();
+        if (tokens.length == 1) return shard.suggest(tokens[0], maxSuggestions);
+
+        String corrected = shard.correct(tokens);
+        return corrected.equals(normalizedQuery) ? List.of() : List.of(corrected);
+    }
+
+    /**
+     * Replace the query words that are not in the lawyer's vocabulary with their closest word
+     *
+     * @param lawyerId Owner of the shard
+     * @param normalizedQuery Query already normalized with {@link #normalize(String)}
+     * @param loader Loads the lawyer's lawsuits when the shard is not built yet
+     * @return The corrected query, the same instance when nothing was corrected
+     */
+    public String correct(Long lawyerId, String normalizedQuery, Supplier<List<Lawsuit>> loader) {
+        Shard shard = shard(lawyerId, loader);
+        String corrected = shard.correct(tokens(normalizedQuery));
+        return corrected.equals(normalizedQuery) ? normalizedQuery : corrected;
+    }
+
+    /**
+     * Case or client names having a word that starts with the prefix
+     *
+     * @param lawyerId Owner of the shard
+     * @param normalizedPrefix Prefix already normalized with {@link #normalize(String)}
+     * @param field Names to complete
+     * @param limit Maximum number of names to return
+     * @param loader Loads the lawyer's lawsuits when the shard is not built yet
+     * @return Distinct names as written in the lawsuits
+     */
+    public List<String> complete(Long lawyerId,
+                                 String normalizedPrefix,
+                                 TypeaheadField field,
+                                 int limit,
+                                 Supplier<List<Lawsuit>> loader) {
+        return shard(lawyerId, loader).complete(normalizedPrefix, field, limit);
+    }
+
+    /**
+     * Return the cached response of a search, or run it and cache its response.
+     * Responses are kept for the lawyer's generation of the {@code lawsuits} cache, so a lawsuit write on any node
+     * invalidates them.
+     *
+     * @param lawyerId Owner of the shard
+     * @param key Normalized query and page of the search
+     * @param loader Loads the lawyer's lawsuits when the shard is not built yet
+     * @param search Runs the search on a cache miss
+     */
+    public LawsuitSearchResponse cachedSearch(Long lawyerId,
+                                              SearchKey key,
+                                              Supplier<List<Lawsuit>> loader,
+                                              Supplier<LawsuitSearchResponse> search) {
+        Shard shard = shard(lawyerId, loader);
+        long generation = shard.generation;
+        LawsuitSearchResponse cached = shard.cachedResult(key, generation);
+        if (cached != null) return cached;
+
+        LawsuitSearchResponse response = search.get();
+        shard.cacheResult(key, response, generation);
+        return response;
+    }
+
+    /**
+     * Add or refresh a lawsuit in its lawyer's shard. Deleted lawsuits are removed.
+     * Nothing happens when the shard has not been built yet, it will be loaded from the DB on first use.
+     * A shard that missed a write, made on another node or concurrently, is dropped and rebuilt on next use.
+     *
+     * @param generation The lawyer's generation of the {@code lawsuits} cache returned by the bump of this write
+     */
+    public void index(Lawsuit lawsuit, long generation) {
+        if (lawsuit.getLawyer() == null || lawsuit.getId() == null) return;
+        index(lawsuit.getLawyer().getId(), generation, () -> lawsuit);
+    }
+
+    /**
+     * {@link #index(Lawsuit, long)} with the lawsuit only built when the lawyer has a current shard
+     */
+    public void index(Long lawyerId, long generation, Supplier<Lawsuit> lawsuit) {
+        apply(lawyerId, generation, shard -> {
+            Lawsuit indexed = lawsuit.get();
+            if (indexed.isDeleted()) {
+                shard.remove(indexed.getId());
+            } else {
+                shard.put(indexed);
+            }
+        });
+    }
+
+    /**
+     * Follow a write that changed none of the indexed fields, so the shard stays current without a rebuild
+     *
+     * @param generation The lawyer's generation of the {@code lawsuits} cache returned by the bump of this write
+     */
+    public void advance(Long lawyerId, long generation) {
+        apply(lawyerId, generation, shard -> { });
+    }
+
+    private void apply(Long lawyerId, long generation, Consumer<Shard> change) {
+        CompletableFuture<Shard> future = shards.get(lawyerId);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) return;
+
+        Shard shard = future.join();
+        synchronized (shard) {
+            if (shard.generation != generation - 1) {
+                shards.remove(lawyerId, future);
+                return;
+            }
+            change.accept(shard);
+            shard.generation = generation;
+        }
+    }
+
+    public void evict(Long lawyerId) {
+        shards.remove(lawyerId);
+    }
+
+    @Scheduled(fixedDelayString = "${lawsuit.search.idle-check-interval:PT1M}")
+    public void evictIdleShards() {
+        long idleSince = System.nanoTime() - config.getIdleShardTtl().toNanos();
+        shards.values().removeIf(future -> future.isDone()
+                && !future.isCompletedExceptionally()
+                && future.join().lastAccess - idleSince < 0);
+    }
+
+    private Shard shard(Long lawyerId, Supplier<List<Lawsuit>> loader) {
+        // Read before loading, so a write committed during the load makes the shard stale instead of lost
+        long generation = cacheKeys.generation(GENERATION_CACHE, lawyerId);
+        while (true) {
+            CompletableFuture<Shard> future = shards.get(lawyerId);
+            if (future == null) {
+                CompletableFuture<Shard> load = new CompletableFuture<>();
+                future = shards.putIfAbsent(lawyerId, load);
+                if (future == null) {
+                    future = load;
+                    try {
+                        load.complete(Shard.of(loader.get(), generation, config.getMaxCachedResults()));
+                    } catch (RuntimeException e) {
+                        shards.remove(lawyerId, load);
+                        load.completeExceptionally(e);
+                        throw e;
+                    }
+                }
+            }
+
+            Shard shard;
+            try {
+                shard = future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            if (shard.generation == generation) {
+                shard.lastAccess = System.nanoTime();
+                return shard;
+            }
+            // Lawsuits changed on another node since the shard was built
+            shards.remove(lawyerId, future);
+        }
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : ArabicNormalizer.normalizeForSearch(value);
+    }
+
+    // Prefer the persisted normalized column, rows not backfilled yet are normalized here
+    private static String searchColumn(String normalized, String raw) {
+        return normalized != null ? normalized : normalize(raw);
+    }
+
+    private static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static int maxEditDistance(String token) {
+        return token.length() <= 4 ? 1 : MAX_EDIT_DISTANCE;
+    }
+
+    /**
+     * The name from each word start, so a name can be completed from any of its words
+     */
+    private static List<String> wordSuffixes(String normalized) {
+        List<String> suffixes = new ArrayList<>();
+        if (normalized.isEmpty()) return suffixes;
+
+        suffixes.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            suffixes.add(normalized.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        if (normalized.isEmpty()) return grams;
+
+        String padded = " " + normalized + " ";
+        if (padded.length() < GRAM_SIZE) {
+            grams.add(padded);
+            return grams;
+        }
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * @param normalizedQuery Query already normalized with {@link #normalize(String)}
+     * @param limit Page size
+     * @param afterScore Cursor score, null for the first page
+     * @param afterId Cursor id, null for the first page
+     */
+    public record SearchKey(String normalizedQuery, int limit, Double afterScore, Long afterId) {
+    }
+
+    public record Candidate(Long id, String name, String description, int sharedGrams) {
+    }
+
+    private record Entry(Long id,
+                         String name,
+                         String description,
+                         String clientName,
+                         String rawName,
+                         String rawClientName,
+                         Set<String> grams,
+                         List<String> tokens) {
+    }
+
+    private static final class Shard {
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final SymSpell vocabulary = new SymSpell(MAX_EDIT_DISTANCE, PREFIX_LENGTH);
+        private final TernarySearchTree<String> caseNames = new TernarySearchTree<>();
+        private final TernarySearchTree<String> clientNames = new TernarySearchTree<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile long lastAccess = System.nanoTime();
+        // Generation of the lawyer's lawsuits the shard reflects, guarded by the shard
+        private volatile long generation;
+
+        // Search responses of one generation, least recently used dropped first, guarded by itself
+        private final Map<SearchKey, LawsuitSearchResponse> results;
+        private long resultsGeneration;
+
+        private Shard(int maxCachedResults) {
+            this.results = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<SearchKey, LawsuitSearchResponse> eldest) {
+                    return size() > maxCachedResults;
+                }
+            };
+        }
+
+        static Shard of(List<Lawsuit> lawsuits, long generation, int maxCachedResults) {
+            Shard shard = new Shard(maxCachedResults);
+            lawsuits.forEach(shard::put);
+            shard.generation = generation;
+            return shard;
+        }
+
+        void put(Lawsuit lawsuit) {
+            String name = searchColumn(lawsuit.getNormalizedName(), lawsuit.getName());
+            String description = searchColumn(lawsuit.getNormalizedDescription(), lawsuit.getDescription());
+            String clientName = searchColumn(lawsuit.getNormalizedClientName(), lawsuit.getClientName());
+            Set<String> grams = trigrams(name);
+            grams.addAll(trigrams(description));
+            List<String> tokens = new ArrayList<>();
+            for (String field : List.of(name, clientName, description)) {
+                Collections.addAll(tokens, tokens(field));
+            }
+            Entry entry = new Entry(lawsuit.getId(), name, description, clientName,
+                    lawsuit.getName(), lawsuit.getClientName(), grams, tokens);
+
+            lock.writeLock().lock();
+            try {
+                unlink(entries.put(entry.id(), entry));
+                for (String gram : grams) {
+                    postings.computeIfAbsent(gram, g -> new HashSet<>()).add(entry.id());
+                }
+                entry.tokens().forEach(vocabulary::add);
+                wordSuffixes(entry.name()).forEach(key -> caseNames.add(key, entry.rawName()));
+                wordSuffixes(entry.clientName()).forEach(key -> clientNames.add(key, entry.rawClientName()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                unlink(entries.remove(id));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        LawsuitSearchResponse cachedResult(SearchKey key, long generation) {
+            synchronized (results) {
+                return resultsGeneration == generation ? results.get(key) : null;
+            }
+        }
+
+        // Responses computed before a write are dropped instead of cached, the first response of a generation clears the older ones
+        void cacheResult(SearchKey key, LawsuitSearchResponse response, long computedAt) {
+            synchronized (results) {
+                if (generation != computedAt) return;
+                if (resultsGeneration != computedAt) {
+                    results.clear();
+                    resultsGeneration = computedAt;
+                }
+                results.put(key, response);
+            }
+        }
+
+        private void unlink(Entry previous) {
+            if (previous == null) return;
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) continue;
+                ids.remove(previous.id());
+                if (ids.isEmpty()) postings.remove(gram);
+            }
+            previous.tokens().forEach(vocabulary::remove);
+            wordSuffixes(previous.name()).forEach(key -> caseNames.remove(key, previous.rawName()));
+            wordSuffixes(previous.clientName()).forEach(key -> clientNames.remove(key, previous.rawClientName()));
+        }
+
+        List<String> complete(String normalizedPrefix, TypeaheadField field, int limit) {
+            lock.readLock().lock();
+            try {
+                TernarySearchTree<String> names = field == TypeaheadField.CLIENT_NAME ? clientNames : caseNames;
+                return names.complete(normalizedPrefix, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<String> suggest(String token, int maxSuggestions) {
+            lock.readLock().lock();
+            try {
+                return vocabulary.lookup(token, maxEditDistance(token), maxSuggestions)
+                        .stream()
+                        .map(SymSpell.Suggestion::term)
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        String correct(String[] tokens) {
+            lock.readLock().lock();
+            try {
+                StringJoiner corrected = new StringJoiner(" ");
+                EditDistance editDistance = new EditDistance();
+                for (String token : tokens) {
+                    if (token.length() < MIN_CORRECTABLE_LENGTH || vocabulary.contains(token)) {
+                        corrected.add(token);
+                        continue;
+                    }
+                    List<SymSpell.Suggestion> suggestions = vocabulary.lookup(token, maxEditDistance(token), 1, editDistance);
+                    corrected.add(suggestions.isEmpty() ? token : suggestions.getFirst().term());
+                }
+                return corrected.toString();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Candidate> candidates(String normalizedQuery, int maxCandidates) {
+            Set<String> queryGrams = trigrams(normalizedQuery);
+
+            lock.readLock().lock();
+            try {
+                Map<Long, Integer> overlap = new HashMap<>();
+                for (String gram : queryGrams) {
+                    Set<Long> ids = postings.get(gram);
+                    if (ids == null) continue;
+                    for (Long id : ids) overlap.merge(id, 1, Integer::sum);
+                }
+
+                return overlap.entrySet().stream()
+                        .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                        .limit(maxCandidates)
+                        .map(e -> {
+                            Entry entry = entries.get(e.getKey());
+                            return new Candidate(entry.id(), entry.name(), entry.description(), e.getValue());
+                        })
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mohamed.lawyer.lawsuit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LawsuitSearchResponse {
+    private List<LawsuitResponse> results;
+    // Query with misspelled words corrected, null when nothing was corrected
+    private String correctedSearch;
+    // Cursor of the next page, null on the last page
+    private Double nextAfterScore;
+    private Long nextAfterId;
+}
@@ -1,21 +1,29 @@
 package com.mohamed.lawyer.lawsuit;
 
-import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.config.CacheKeys;
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import com.mohamed.lawyer.logs.LogsService;
 import com.mohamed.lawyer.storage.GoogleDriveService;
 import com.mohamed.lawyer.utils.ArabicNormalizer;
-import com.mohamed.lawyer.utils.FuzzyUtils;
+import com.mohamed.lawyer.utils.TopK;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
@@ -24,10 +32,26 @@ public class LawsuitService {
     private final LawsuitRepository repository;
     private final LawsuitMapper lawsuitMapper;
     private final GoogleDriveService googleDriveService;
+    private final LawsuitSearchIndex searchIndex;
+    private final LawsuitFuzzyScorer fuzzyScorer;
+    private final LawsuitSearchConfig searchConfig;
+    private final CacheKeys cacheKeys;
+    private final LawsuitSnapshotCache snapshots;
+    private final LawyerRepository lawyerRepository;
+    private final LogsService logsService;
 
     private final String CACHE_VALUE = "lawsuits";
 
-    @Cacheable(value = CACHE_VALUE , key = "'all'")
+    // Full-text hits rank above every fuzzy score, then by relevance
+    private static final double FULLTEXT_SCORE = 1.1;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    // MySQL ngram_token_size the full-text indexes are built with
+    private static final int NGRAM_TOKEN_SIZE = 2;
+    // A single field update re-reads a stale snapshot and retries this many times at most
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    @Cacheable(value = CACHE_VALUE , key = "@cacheKeys.lawyer(#root.caches[0].name, 'all')", sync = true)
     public List<LawsuitResponse> getAllLawsuits(){
        return repository.findLawsuitByLawyerId()
                .stream()
@@ -35,17 +59,20 @@ public class LawsuitService {
                .toList();
    }
 
-   @CacheEvict(value = CACHE_VALUE , key = "'all'")
    public Long addLawsuit(LawsuitRequest lawsuitRequest,
                              Authentication connectedUser){
-        Lawyer lawyer = (Lawyer) connectedUser.getPrincipal();
+        LawyerPrincipal lawyer = (LawyerPrincipal) connectedUser.getPrincipal();
         Lawsuit lawsuit = lawsuitMapper.toLawsuit(lawsuitRequest);
-        lawsuit.setLawyer(lawyer);
+        // Reference only, the lawyer row is not read
+        lawsuit.setLawyer(lawyerRepository.getReferenceById(lawyer.getId()));
         lawsuit.setFolderId(googleDriveService.createFolder(lawsuit.getName(), null));
-        return repository.save(lawsuit).getId();
+        Lawsuit savedLawsuit = repository.save(lawsuit);
+        snapshots.put(LawsuitSnapshot.of(savedLawsuit));
+        searchIndex.index(savedLawsuit, evictCaches(savedLawsuit));
+        return savedLawsuit.getId();
    }
 
-   @Cacheable(value = CACHE_VALUE , key = "#status")
+   @Cacheable(value = CACHE_VALUE , key = "@cacheKeys.lawyer(#root.caches[0].name, 'status', #status)", sync = true)
     public List<LawsuitResponse> getLawsuitByStatus(Status status) {
         return repository.findLawsuitByStatus(status)
                 .stream()
@@ -53,123 +80,248 @@ public class LawsuitService {
                 .toList();
     }
 
-    @Cacheable(value = CACHE_VALUE , key = "#clientName")
+    @Cacheable(value = CACHE_VALUE , key = "@cacheKeys.lawyer(#root.caches[0].name, 'client', #clientName)", sync = true)
     public List<LawsuitResponse> getLawsuitByClientName(String clientName){
-        return repository.findLawsuitByClientName(clientName)
+        return repository.findLawsuitByClientName(toSubstringQuery(clientName))
                 .stream()
                 .map(lawsuitMapper::toLawsuitResponse)
                 .toList();
     }
 
     public List<LawsuitResponse> getLawsuitByName(String name){
-        return repository.findAllByLawsuitName(name)
+        return repository.findAllByLawsuitName(toSubstringQuery(name))
                 .stream()
                 .map(lawsuitMapper::toLawsuitResponse)
                 .toList();
     }
 
     public void markAsDeleted(Long lawsuitId){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
-        lawsuit.setDeleted(!lawsuit.isDeleted());
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+        // Toggled in the UPDATE, the version check makes it the opposite of the snapshot's
+        LawsuitSnapshot lawsuit = update(lawsuitId,
+                snapshot -> repository.toggleDeleted(lawsuitId, snapshot.lawyerId(), snapshot.version(), LocalDate.now()),
+                snapshot -> snapshot.withDeleted(!snapshot.deleted()),
+                true);
+        logsService.evictLawsuitLogs(lawsuit.lawyerId());
     }
 
     public void updateStatus(Long lawsuitId,Status status){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
-
-        if(lawsuit.getStatus() == status){
-            throw new IllegalArgumentException("Lawsuit status is already " + status);
-        }
-        lawsuit.setStatus(status);
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+        update(lawsuitId,
+                snapshot -> {
+                    if(snapshot.status() == status){
+                        throw new IllegalArgumentException("Lawsuit status is already " + status);
+                    }
+                    return repository.updateStatus(lawsuitId, snapshot.lawyerId(), snapshot.version(), status, LocalDate.now());
+                },
+                snapshot -> snapshot.withStatus(status),
+                false);
     }
 
     public void updateNotes(Long lawsuitId,String notes){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
-
-        lawsuit.setNotes(notes);
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+        update(lawsuitId,
+                snapshot -> repository.updateNotes(lawsuitId, snapshot.lawyerId(), snapshot.version(), notes, LocalDate.now()),
+                LawsuitSnapshot::nextVersion,
+                false);
     }
 
     public void updateDescription(Long lawsuitId,String description){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
-
-        lawsuit.setDescription(description);
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+        String normalizedDescription = ArabicNormalizer.normalizeForSearch(description);
+        update(lawsuitId,
+                snapshot -> repository.updateDescription(lawsuitId, snapshot.lawyerId(), snapshot.version(),
+                        description, normalizedDescription, LocalDate.now()),
+                snapshot -> snapshot.withDescription(description),
+                true);
     }
 
     public void updateClientName(Long lawsuitId,String clientName){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
-
-        lawsuit.setClientName(clientName);
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+        String normalizedClientName = ArabicNormalizer.normalizeForSearch(clientName);
+        update(lawsuitId,
+                snapshot -> repository.updateClientName(lawsuitId, snapshot.lawyerId(), snapshot.version(),
+                        clientName, normalizedClientName, LocalDate.now()),
+                snapshot -> snapshot.withClientName(clientName),
+                true);
     }
 
     public void updateClientPhone(Long lawsuitId,String clientPhone){
-        Lawsuit lawsuit = repository.findById(lawsuitId)
-                .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
+        update(lawsuitId,
+                snapshot -> repository.updateClientPhone(lawsuitId, snapshot.lawyerId(), snapshot.version(), clientPhone, LocalDate.now()),
+                LawsuitSnapshot::nextVersion,
+                false);
+    }
 
-        lawsuit.setClientPhone(clientPhone);
-        lawsuit.setLastModified(LocalDate.now());
-        repository.save(lawsuit);
+    /**
+     * Full-text hits first, then fuzzy matches, best first. Only the best {@code limit} hits after the cursor
+     * are kept while scoring and only those lawsuits are loaded.
+     * Responses are cached per lawyer and normalized query until one of the lawyer's lawsuits changes.
+     *
+     * @param limit Page size, clamped to [1, {@value #MAX_SEARCH_LIMIT}]
+     * @param afterScore Score of the last hit of the previous page, null for the first page
+     * @param afterId Id of the last hit of the previous page, null for the first page
+     */
+    public LawsuitSearchResponse getFulltextFuzzy(String searchTerm,
+                                                  int limit,
+                                                  Double afterScore,
+                                                  Long afterId,
+                                                  Authentication connectedUser) {
+        if ((afterScore == null) != (afterId == null)) {
+            throw new IllegalArgumentException("afterScore and afterId must be given together");
+        }
+        LawyerPrincipal lawyer = (LawyerPrincipal) connectedUser.getPrincipal();
+        String normalizedSearch = LawsuitSearchIndex.normalize(searchTerm);
+        int pageSize = Math.clamp(limit, 1, MAX_SEARCH_LIMIT);
+
+        return searchIndex.cachedSearch(
+                lawyer.getId(),
+                new LawsuitSearchIndex.SearchKey(normalizedSearch, pageSize, afterScore, afterId),
+                repository::findLawsuitByLawyerId,
+                () -> search(lawyer, normalizedSearch, pageSize, afterScore, afterId)
+        );
     }
 
-    public List<LawsuitResponse> getFulltextFuzzy(String searchTerm, Authentication connectedUser) {
-        Lawyer lawyer = (Lawyer) connectedUser.getPrincipal();
-        String normalizedSearch = ArabicNormalizer.normalize(searchTerm);
-        List<Lawsuit> fulltextResults = repository.findByFullTextSearch(searchTerm, lawyer.getId());
-        List<Lawsuit> allLawsuits = repository.findLawsuitByLawyerId();
-        Set<Long> fulltextIds = fulltextResults.stream()
-                .map(Lawsuit::getId)
-                .collect(Collectors.toSet());
+    private LawsuitSearchResponse search(LawyerPrincipal lawyer,
+                                         String normalizedSearch,
+                                         int pageSize,
+                                         Double afterScore,
+                                         Long afterId) {
+        // Misspelled words would miss the full-text index, fuzzy scoring still uses the query as typed
+        String correctedSearch = searchIndex.correct(lawyer.getId(), normalizedSearch, repository::findLawsuitByLawyerId);
 
-        List<LawsuitResponse> results = fulltextResults.stream()
-                .map(lawsuitMapper::toLawsuitResponse)
-                .peek(dto -> dto.setScore(1.1))
+        // One extra hit tells whether there is a next page
+        int k = pageSize + 1;
+        Predicate<SearchHit> afterCursor = hit -> hit.isAfter(afterScore, afterId);
+
+        TopK<SearchHit> topHits = new TopK<>(k, SearchHit.RANK);
+        Set<Long> fulltextIds = new HashSet<>();
+        for (LawsuitScore fulltextHit : repository.findByFullTextSearch(correctedSearch, lawyer.getId())) {
+            fulltextIds.add(fulltextHit.getId());
+            SearchHit hit = new SearchHit(fulltextHit.getId(), FULLTEXT_SCORE + fulltextHit.getRelevance());
+            if (afterCursor.test(hit)) topHits.offer(hit);
+        }
+
+        List<LawsuitSearchIndex.Candidate> candidates = searchIndex.candidates(
+                        lawyer.getId(), normalizedSearch, searchConfig.getMaxFuzzyCandidates(), repository::findLawsuitByLawyerId)
+                .stream()
+                .filter(candidate -> !fulltextIds.contains(candidate.id()))
                 .toList();
+        topHits.offerAll(fuzzyScorer.score(normalizedSearch, candidates, k, afterCursor));
 
-        List<LawsuitResponse> fuzzyMatches = allLawsuits.stream()
-                .filter(l -> !fulltextIds.contains(l.getId()))
-                .map(lawsuitMapper::toLawsuitResponse)
-                .peek(dto -> {
-                    String normalizedName = ArabicNormalizer.normalize(dto.getName());
-                    String normalizedDescription = ArabicNormalizer.normalize(dto.getDescription());
+        List<SearchHit> hits = topHits.toSortedList();
+        boolean hasMore = hits.size() > pageSize;
+        if (hasMore) hits = hits.subList(0, pageSize);
 
-                    double score = Math.max(
-                            FuzzyUtils.similarity(normalizedSearch, normalizedName),
-                            FuzzyUtils.similarity(normalizedSearch, normalizedDescription)
-                    );
-                    dto.setScore(score);
+        Map<Long, Lawsuit> lawsuits = repository.findAllById(hits.stream().map(SearchHit::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Lawsuit::getId, Function.identity()));
 
+        List<LawsuitResponse> results = hits.stream()
+                .filter(hit -> lawsuits.containsKey(hit.id()))
+                .map(hit -> {
+                    LawsuitResponse response = lawsuitMapper.toLawsuitResponse(lawsuits.get(hit.id()));
+                    response.setScore(hit.score());
+                    return response;
                 })
-                .filter(dto -> dto.getScore() > 0.1)
                 .toList();
 
-        return Stream.concat(results.stream(), fuzzyMatches.stream())
-                .sorted(Comparator.comparingDouble(LawsuitResponse::getScore).reversed())
-                .toList();
+        SearchHit last = hasMore ? hits.getLast() : null;
+        return LawsuitSearchResponse.builder()
+                .results(results)
+                .correctedSearch(correctedSearch.equals(normalizedSearch) ? null : correctedSearch)
+                .nextAfterScore(last == null ? null : last.score())
+                .nextAfterId(last == null ? null : last.id())
+                .build();
+    }
+
+    public List<String> typeahead(String prefix, TypeaheadField field, int limit, Authentication connectedUser) {
+        LawyerPrincipal lawyer = (LawyerPrincipal) connectedUser.getPrincipal();
+        return searchIndex.complete(
+                lawyer.getId(),
+                LawsuitSearchIndex.normalize(prefix),
+                field,
+                Math.clamp(limit, 1, MAX_SUGGESTIONS),
+                repository::findLawsuitByLawyerId
+        );
+    }
+
+    public List<String> suggest(String searchTerm, int limit, Authentication connectedUser) {
+        LawyerPrincipal lawyer = (LawyerPrincipal) connectedUser.getPrincipal();
+        return searchIndex.suggest(
+                lawyer.getId(),
+                LawsuitSearchIndex.normalize(searchTerm),
+                Math.clamp(limit, 1, MAX_SUGGESTIONS),
+                repository::findLawsuitByLawyerId
+        );
     }
 
-    @CacheEvict(value = CACHE_VALUE, allEntries = true)
     public Lawsuit updateLawsuit(Long lawsuitId,LawsuitRequest lawsuitRequest){
         Lawsuit lawsuit = repository.findById(lawsuitId)
                 .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
+        boolean renamed = !Objects.equals(lawsuit.getName(), lawsuitRequest.name());
         lawsuit.setName(lawsuitRequest.name());
         lawsuit.setDescription(lawsuitRequest.description());
         lawsuit.setClientName(lawsuitRequest.clientName());
         lawsuit.setClientPhone(lawsuitRequest.clientPhone());
         lawsuit.setLastModified(LocalDate.now());
-        return repository.save(lawsuit);
+        Lawsuit savedLawsuit = repository.save(lawsuit);
+        snapshots.put(LawsuitSnapshot.of(savedLawsuit));
+        searchIndex.index(savedLawsuit, evictCaches(savedLawsuit));
+        if (renamed) {
+            logsService.evictLawsuitLogs(savedLawsuit.getLawyer().getId());
+        }
+        return savedLawsuit;
+
+    }
+
+    /**
+     * Single field update without reading the row. The UPDATE only applies at the cached snapshot's version,
+     * so the snapshot with the new value is the updated row and replaces the cached one.
+     * A snapshot that fell behind the row, e.g. updated on another node, is read again and the update retried.
+     * The lawyer's lists are invalidated. The search index is only given the lawsuit when an indexed field changed
+     * and the lawyer has a current shard, built from the new snapshot.
+     *
+     * @param update Runs the UPDATE at the snapshot's version, returns the updated row count
+     * @param updated Snapshot after the update
+     * @param indexed Whether the update changes a field of the search index
+     * @return The snapshot after the update
+     */
+    private LawsuitSnapshot update(Long lawsuitId,
+                                   ToIntFunction<LawsuitSnapshot> update,
+                                   UnaryOperator<LawsuitSnapshot> updated,
+                                   boolean indexed) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            // Throws when the lawsuit is missing or belongs to another lawyer
+            LawsuitSnapshot lawsuit = snapshots.get(lawsuitId);
+            if (update.applyAsInt(lawsuit) == 0) {
+                snapshots.evict(lawsuitId);
+                continue;
+            }
+
+            LawsuitSnapshot next = updated.apply(lawsuit);
+            snapshots.put(next);
+            long generation = cacheKeys.invalidateLawyer(CACHE_VALUE, next.lawyerId());
+            if (indexed) {
+                searchIndex.index(next.lawyerId(), generation, next::toLawsuit);
+            } else {
+                searchIndex.advance(next.lawyerId(), generation);
+            }
+            return next;
+        }
+        throw new IllegalStateException("Lawsuit is being updated concurrently, try again");
+    }
+
+    /**
+     * Invalidate the lawyer's cached lawsuit lists, any of them may contain or now match the lawsuit
+     *
+     * @return The lawyer's new generation, which the search index follows
+     */
+    private long evictCaches(Lawsuit lawsuit) {
+        return cacheKeys.invalidateLawyer(CACHE_VALUE, lawsuit.getLawyer().getId());
+    }
 
+    /**
+     * Boolean mode query for the ngram full-text indexes that behaves like a substring match:
+     * a phrase of the term's n-grams, or a prefix search when the term is shorter than one n-gram
+     */
+    private static String toSubstringQuery(String term) {
+        String normalized = ArabicNormalizer.normalizeForSearch(term).replace("\"", "");
+        return normalized.length() < NGRAM_TOKEN_SIZE ? normalized + "*" : "\"" + normalized + "\"";
     }
 }
@@ -0,0 +1,72 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.lawyer.Lawyer;
+
+/**
+ * Cached state of a lawsuit needed to check its owner and apply single field updates without reading the row.
+ * Holds the row version the updates compare against, and what the search index reads so an updated lawsuit
+ * can be re-indexed from it. The {@code with} methods give the snapshot after an update, one version later.
+ */
+record LawsuitSnapshot(Long id,
+                       Long lawyerId,
+                       long version,
+                       String name,
+                       String description,
+                       String clientName,
+                       Status status,
+                       boolean deleted) {
+
+    static LawsuitSnapshot of(Lawsuit lawsuit) {
+        return new LawsuitSnapshot(
+                lawsuit.getId(),
+                lawsuit.getLawyer().getId(),
+                lawsuit.getVersion(),
+                lawsuit.getName(),
+                lawsuit.getDescription(),
+                lawsuit.getClientName(),
+                lawsuit.getStatus(),
+                lawsuit.isDeleted()
+        );
+    }
+
+    /**
+     * Snapshot after an update of a field it doesn't hold
+     */
+    LawsuitSnapshot nextVersion() {
+        return new LawsuitSnapshot(id, lawyerId, version + 1, name, description, clientName, status, deleted);
+    }
+
+    LawsuitSnapshot withStatus(Status status) {
+        return new LawsuitSnapshot(id, lawyerId, version + 1, name, description, clientName, status, deleted);
+    }
+
+    LawsuitSnapshot withDescription(String description) {
+        return new LawsuitSnapshot(id, lawyerId, version + 1, name, description, clientName, status, deleted);
+    }
+
+    LawsuitSnapshot withClientName(String clientName) {
+        return new LawsuitSnapshot(id, lawyerId, version + 1, name, description, clientName, status, deleted);
+    }
+
+    LawsuitSnapshot withDeleted(boolean deleted) {
+        return new LawsuitSnapshot(id, lawyerId, version + 1, name, description, clientName, status, deleted);
+    }
+
+    /**
+     * Detached lawsuit with the snapshot's fields, for the search index
+     */
+    Lawsuit toLawsuit() {
+        Lawsuit lawsuit = Lawsuit.builder()
+                .id(id)
+                .lawyer(Lawyer.builder().id(lawyerId).build())
+                .version(version)
+                .name(name)
+                .description(description)
+                .clientName(clientName)
+                .status(status)
+                .isDeleted(deleted)
+                .build();
+        lawsuit.normalizeSearchColumns();
+        return lawsuit;
+    }
+}
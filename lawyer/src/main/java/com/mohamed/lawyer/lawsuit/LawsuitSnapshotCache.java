@@ -0,0 +1,57 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.CacheKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-through cache of {@link LawsuitSnapshot}s by lawsuit id.
+ * A snapshot left behind by a racing write is harmless: updates at its version match no row and read it again.
+ * Ownership is checked against the cached owner, so only a miss reads the lawsuit from the DB.
+ */
+@Component
+@RequiredArgsConstructor
+class LawsuitSnapshotCache {
+
+    static final String CACHE_VALUE = "lawsuit";
+
+    private final CacheManager cacheManager;
+    private final LawsuitRepository repository;
+
+    /**
+     * Snapshot of one of the connected lawyer's lawsuits
+     *
+     * @throws IllegalArgumentException if the lawsuit does not exist or belongs to another lawyer
+     */
+    LawsuitSnapshot get(Long lawsuitId) {
+        Cache.ValueWrapper cached = cache().get(lawsuitId);
+        LawsuitSnapshot snapshot;
+        if (cached != null) {
+            snapshot = (LawsuitSnapshot) cached.get();
+        } else {
+            snapshot = repository.findById(lawsuitId)
+                    .map(LawsuitSnapshot::of)
+                    .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
+            put(snapshot);
+        }
+
+        if (!snapshot.lawyerId().equals(CacheKeys.currentLawyerId())) {
+            throw new IllegalArgumentException("Lawsuit not found");
+        }
+        return snapshot;
+    }
+
+    void put(LawsuitSnapshot snapshot) {
+        cache().put(snapshot.id(), snapshot);
+    }
+
+    void evict(Long lawsuitId) {
+        cache().evict(lawsuitId);
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CACHE_VALUE);
+    }
+}
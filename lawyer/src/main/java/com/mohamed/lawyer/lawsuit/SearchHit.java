@@ -0,0 +1,23 @@
+package com.mohamed.lawyer.lawsuit;
+
+import java.util.Comparator;
+
+/**
+ * Scored search result before the lawsuit is loaded. Results are ordered by score descending then id ascending,
+ * which is also the order of the (afterScore, afterId) keyset cursor.
+ */
+record SearchHit(Long id, double score) {
+
+    /** Ascending order, the best hit is the greatest */
+    static final Comparator<SearchHit> RANK = Comparator.comparingDouble(SearchHit::score)
+            .thenComparing(SearchHit::id, Comparator.reverseOrder());
+
+    /**
+     * @return {@code true} if the hit comes after the cursor, or there is no cursor
+     */
+    boolean isAfter(Double afterScore, Long afterId) {
+        if (afterScore == null) return true;
+        int byScore = Double.compare(score, afterScore);
+        return byScore < 0 || (byScore == 0 && id > afterId);
+    }
+}
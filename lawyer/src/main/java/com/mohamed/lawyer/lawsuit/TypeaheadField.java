@@ -0,0 +1,6 @@
+package com.mohamed.lawyer.lawsuit;
+
+public enum TypeaheadField {
+    CLIENT_NAME,
+    CASE_NAME
+}
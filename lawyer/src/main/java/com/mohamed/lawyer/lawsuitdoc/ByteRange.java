@@ -0,0 +1,68 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import org.springframework.http.HttpRange;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Inclusive byte range of a download, resolved from the {@code Range} and {@code If-Range} request headers.
+ * Only single ranges are served partially, other requests get the whole content as allowed by RFC 9110.
+ */
+record ByteRange(long first, long last) {
+
+    /** The requested range starts after the content */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    long length() {
+        return last - first + 1;
+    }
+
+    boolean isSatisfiable() {
+        return first >= 0;
+    }
+
+    /**
+     * @param range {@code Range} header, may be null
+     * @param ifRange {@code If-Range} header, may be null
+     * @param etag Current strong ETag of the content
+     * @param lastModified Current last modification in epoch millis, -1 if unknown
+     * @param contentLength Length of the whole content
+     * @return The range to send, {@link #UNSATISFIABLE}, or null to send the whole content
+     */
+    static ByteRange resolve(String range, String ifRange, String etag, long lastModified, long contentLength) {
+        if (range == null || !ifRangeMatches(ifRange, etag, lastModified)) return null;
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // An invalid Range header is ignored
+            return null;
+        }
+        if (ranges.size() != 1) return null;
+
+        HttpRange httpRange = ranges.getFirst();
+        long first = httpRange.getRangeStart(contentLength);
+        if (first >= contentLength) return UNSATISFIABLE;
+        return new ByteRange(first, httpRange.getRangeEnd(contentLength));
+    }
+
+    /**
+     * The range applies only if the client's copy is still current: same strong ETag, or same modification date
+     */
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(etag);
+        if (lastModified < 0) return false;
+        try {
+            long ifRangeMillis = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            // HTTP dates have a one second precision
+            return ifRangeMillis / 1000 == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
@@ -2,15 +2,18 @@ package com.mohamed.lawyer.lawsuitdoc;
 
 import com.google.api.services.drive.model.File;
 import lombok.RequiredArgsConstructor;
-import org.apache.http.HttpStatus;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -30,26 +33,65 @@ public class DocController {
             return ResponseEntity.badRequest().body("Only PDF files are allowed");
         }
 
-        return ResponseEntity.ok(service.save(file.getBytes(), fileName,description,file.getContentType(),lawsuitId));
+        // Streamed from the multipart part to Drive, never held on the heap as a whole
+        try (InputStream content = file.getInputStream()) {
+            return ResponseEntity.ok(service.save(content, file.getSize(), fileName,description,file.getContentType(),lawsuitId));
+        }
     }
 
+    /**
+     * Streams the file from Drive as it is read, with single range requests answered with 206
+     * and conditional requests with 304 from the Drive metadata
+     */
     @GetMapping("/download/{fileId}")
-    public ResponseEntity<byte[]> downloadFile(
-            @PathVariable String fileId
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @PathVariable String fileId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest request
     ){
 
         File fileMetadata = service.getFileMetadata(fileId);
-
-        byte[] fileContent = service.getDocById(fileId);
+        String etag = etag(fileMetadata);
+        long lastModified = fileMetadata.getModifiedTime() == null ? -1 : fileMetadata.getModifiedTime().getValue();
+        // Sets ETag and Last-Modified, and 304 when the client's copy is current
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(fileMetadata.getMimeType()));
         headers.setContentDispositionFormData("attachment", fileMetadata.getName());
-        headers.setContentLength(fileContent.length);
 
-        return ResponseEntity.ok()
+        // Google Docs formats have no size, they are sent whole
+        if (fileMetadata.getSize() == null) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(outputStream -> service.downloadDoc(fileMetadata, outputStream));
+        }
+
+        long size = fileMetadata.getSize();
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        ByteRange byteRange = ByteRange.resolve(range, ifRange, etag, lastModified, size);
+
+        if (byteRange == null) {
+            headers.setContentLength(size);
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(outputStream -> service.downloadDoc(fileMetadata, outputStream));
+        }
+
+        if (!byteRange.isSatisfiable()) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                    .build();
+        }
+
+        headers.setContentLength(byteRange.length());
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + byteRange.first() + "-" + byteRange.last() + "/" + size);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
                 .headers(headers)
-                .body(fileContent);
+                .body(outputStream -> service.downloadDoc(fileMetadata, byteRange.first(), byteRange.last(), outputStream));
     }
 
     @GetMapping("/all-docs")
@@ -82,4 +124,12 @@ public class DocController {
     )throws IOException{
       return service.analysisFile(fileId,specificLow);
     }
+
+    /**
+     * Strong ETag from the content checksum, or from the file version for files without one
+     */
+    private static String etag(File file) {
+        String tag = file.getMd5Checksum() != null ? file.getMd5Checksum() : file.getId() + "-" + file.getVersion();
+        return "\"" + tag + "\"";
+    }
 }
@@ -4,12 +4,10 @@ import com.google.api.services.drive.model.File;
 import com.mohamed.lawyer.config.LegalAIConfig;
 import com.mohamed.lawyer.lawsuit.Lawsuit;
 import com.mohamed.lawyer.lawsuit.LawsuitRepository;
+import com.mohamed.lawyer.storage.DriveContentCache;
 import com.mohamed.lawyer.storage.GoogleDriveService;
 import com.mohamed.lawyer.utils.LegalPromptSpecifications;
 import lombok.RequiredArgsConstructor;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
@@ -20,8 +18,9 @@ import org.springframework.ai.ollama.api.OllamaOptions;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import static com.mohamed.lawyer.config.LegalAIConfig.MAIN_SYSTEM_PROMPT;
@@ -32,11 +31,19 @@ public class DocService {
     private final DocRepository repository;
     private final DocMapper mapper;
     private final GoogleDriveService googleDriveService;
+    private final DriveContentCache driveContentCache;
     private final LawsuitRepository lawsuitRepository;
     private final ChatModel chatModel;
     private final ChatClient chatClient;
-
-    public Long save(byte[] file,
+    private final DocTextRepository docTextRepository;
+    private final DocTextExtractor docTextExtractor;
+
+    /**
+     * @param content File content, streamed to Drive
+     * @param size Content length in bytes
+     */
+    public Long save(InputStream content,
+                     long size,
                      String fileName,
                      String description,
                      String mimeType,
@@ -45,7 +52,8 @@ public class DocService {
         Lawsuit lawsuit = lawsuitRepository.findById(lawsuitId)
                 .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
 
-        String fileId = googleDriveService.uploadFile(file,
+        String fileId = googleDriveService.uploadFile(content,
+                size,
                 fileName,
                 mimeType,
                 lawsuit.getFolderId());
@@ -58,6 +66,9 @@ public class DocService {
                 .build();
 
         Doc savedDoc = repository.save(doc);
+        if (DocTextExtractor.PDF_MIME_TYPE.equals(mimeType)) {
+            docTextExtractor.extractInBackground(savedDoc.getId(), fileId);
+        }
 
         return savedDoc.getId();
     }
@@ -69,8 +80,15 @@ public class DocService {
                 .toList();
     }
 
-    public byte[] getDocById(String fileId) {
-        return googleDriveService.downloadFile(fileId);
+    /**
+     * @param file Drive metadata of the document, its modification time selects the cached copy
+     */
+    public void downloadDoc(File file, OutputStream outputStream) throws IOException {
+        driveContentCache.transferTo(file, outputStream);
+    }
+
+    public void downloadDoc(File file, long first, long last, OutputStream outputStream) throws IOException {
+        driveContentCache.transferTo(file, first, last, outputStream);
     }
 
     public File getFileMetadata(String fileId) {
@@ -79,74 +97,73 @@ public class DocService {
 
     public void deleteDocById(String fileId) {
         Doc doc = repository.findByFileId(fileId).orElseThrow(() -> new IllegalArgumentException("there is no file with this id"));
+        docTextRepository.deleteById(doc.getId());
         repository.delete(doc);
         googleDriveService.deleteFile(fileId);
+        driveContentCache.evict(fileId);
     }
 
-    public Flux<String> analysisFile(String fileId, String specificLow) throws IOException {
-
-        try (PDDocument document = Loader.loadPDF(getDocById(fileId))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            stripper.setLineSeparator("\n");
-            String fileContent = stripper.getText(document);
-
-            File file = googleDriveService.getFileMetadata(fileId);
-
-            String userPrompt = String.format("""
-                    اسم المستند: %s
-                    مجال التركيز: %s
-                    
-                    محتوى المستند:
-                    %s
-                    
-                    الرجاء تقديم تحليل قانوني متعمق مع التركيز على المجال القانوني المحدد.
-                    """, file.getName(), specificLow, fileContent);
-
-
-            return chatClient.prompt()
-                    .system(LegalAIConfig.MAIN_SYSTEM_PROMPT + "\n\n" +
-                            LegalPromptSpecifications.ANALYSIS_SPEC)
-                    .user(userPrompt)
-                    .options(OllamaOptions.create()
-                            .withModel("qwen3:1.7b")
-                            .withTemperature(0.1f))
-                    .stream()
-                    .content();
+    /**
+     * Text stored at upload, or downloaded and extracted now (then stored) for documents uploaded before
+     * or whose background extraction has not finished
+     */
+    private String documentText(Doc doc) throws IOException {
+        DocText docText = docTextRepository.findById(doc.getId()).orElse(null);
+        if (docText == null) {
+            docText = docTextExtractor.extract(doc.getId(), doc.getFileId());
         }
+        return docText.getText();
+    }
 
+    public Flux<String> analysisFile(String fileId, String specificLow) throws IOException {
+        Doc doc = repository.findByFileId(fileId).orElseThrow(() -> new IllegalArgumentException("there is no file with this id"));
+        String fileContent = documentText(doc);
+
+        String userPrompt = String.format("""
+                اسم المستند: %s
+                مجال التركيز: %s
+                
+                محتوى المستند:
+                %s
+                
+                الرجاء تقديم تحليل قانوني متعمق مع التركيز على المجال القانوني المحدد.
+                """, doc.getName(), specificLow, fileContent);
+
+
+        return chatClient.prompt()
+                .system(LegalAIConfig.MAIN_SYSTEM_PROMPT + "\n\n" +
+                        LegalPromptSpecifications.ANALYSIS_SPEC)
+                .user(userPrompt)
+                .options(OllamaOptions.create()
+                        .withModel("qwen3:1.7b")
+                        .withTemperature(0.1f))
+                .stream()
+                .content();
     }
 
 
     public Flux<String> summarizeInPoints(String fileId) throws IOException {
-        try (PDDocument document = Loader.loadPDF(getDocById(fileId))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setSortByPosition(true);
-            stripper.setLineSeparator("\n");
-            String fileContent = stripper.getText(document);
-
-            File file = googleDriveService.getFileMetadata(fileId);
-
-            String userPrompt = String.format("""
-            اسم المستند: %s
-            
-            محتوى المستند:
-            %s
-            
-            الرجاء تقديم ملخص شامل وفقاً للتنسيق المحدد.
-            """, file.getName(), fileContent);
-
-          return chatClient.prompt()
-                    .system(LegalAIConfig.MAIN_SYSTEM_PROMPT + "\n\n" +
-                            LegalPromptSpecifications.SUMMARIZATION_SPEC)
-                    .user(userPrompt)
-                    .options(OllamaOptions.create()
-                            .withModel("qwen3:1.7b")
-                            .withTemperature(0.1f))
-                    .stream()
-                    .content();
-        }
-
+        Doc doc = repository.findByFileId(fileId).orElseThrow(() -> new IllegalArgumentException("there is no file with this id"));
+        String fileContent = documentText(doc);
+
+        String userPrompt = String.format("""
+        اسم المستند: %s
+        
+        محتوى المستند:
+        %s
+        
+        الرجاء تقديم ملخص شامل وفقاً للتنسيق المحدد.
+        """, doc.getName(), fileContent);
+
+        return chatClient.prompt()
+                .system(LegalAIConfig.MAIN_SYSTEM_PROMPT + "\n\n" +
+                        LegalPromptSpecifications.SUMMARIZATION_SPEC)
+                .user(userPrompt)
+                .options(OllamaOptions.create()
+                        .withModel("qwen3:1.7b")
+                        .withTemperature(0.1f))
+                .stream()
+                .content();
     }
 
 }
@@ -0,0 +1,80 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Text of a document, extracted once and stored per page as gzip compressed UTF-8
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "doc_text")
+public class DocText {
+
+    // Pages are joined with the form feed PDFTextStripper ends pages with
+    static final String PAGE_SEPARATOR = "\f";
+
+    @Id
+    private Long docId;
+
+    private int pageCount;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] content;
+
+    private LocalDateTime extractedAt;
+
+    public static DocText of(Long docId, List<String> pages) {
+        return DocText.builder()
+                .docId(docId)
+                .pageCount(pages.size())
+                .content(compress(String.join(PAGE_SEPARATOR, pages)))
+                .extractedAt(LocalDateTime.now())
+                .build();
+    }
+
+    public List<String> getPages() {
+        return Arrays.asList(decompress(content).split(PAGE_SEPARATOR, -1));
+    }
+
+    /**
+     * The whole text, pages separated by a new line
+     */
+    public String getText() {
+        return decompress(content).replace(PAGE_SEPARATOR, "\n");
+    }
+
+    private static byte[] compress(String text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] content) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import com.mohamed.lawyer.storage.DriveContentCache;
+import com.mohamed.lawyer.storage.GoogleDriveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Extracts the text of uploaded PDFs once and stores it as {@link DocText}, so summaries and analyses
+ * don't download and parse the file again. Extraction runs in the background after upload,
+ * a few documents at a time since it is CPU heavy. PDFBox reads the file with random access from the disk cache,
+ * or from a temporary copy when it isn't cacheable, so it is never held on the heap as a whole.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocTextExtractor {
+
+    public static final String PDF_MIME_TYPE = "application/pdf";
+
+    private static final int MAX_CONCURRENT_EXTRACTIONS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final DocTextRepository repository;
+    private final GoogleDriveService googleDriveService;
+    private final DriveContentCache driveContentCache;
+    private final Semaphore permits = new Semaphore(MAX_CONCURRENT_EXTRACTIONS);
+
+    public void extractInBackground(Long docId, String fileId) {
+        Thread.ofVirtual().name("doc-text-" + docId).start(() -> {
+            try {
+                permits.acquire();
+                try {
+                    extract(docId, fileId);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                // Summaries fall back to extracting on demand
+                log.warn("Failed to extract the text of doc {}", docId, e);
+            }
+        });
+    }
+
+    public DocText extract(Long docId, String fileId) throws IOException {
+        com.google.api.services.drive.model.File file = googleDriveService.getFileMetadata(fileId);
+        Path cachedFile = driveContentCache.cachedFile(file);
+        if (cachedFile != null) {
+            try {
+                return repository.save(DocText.of(docId, extractPages(cachedFile.toFile())));
+            } catch (NoSuchFileException | FileNotFoundException e) {
+                // Evicted before PDFBox opened it
+                log.debug("Cached copy of {} was evicted, extracting from a temporary copy", fileId);
+            }
+        }
+
+        Path tempFile = Files.createTempFile("doc-text-", ".pdf");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                driveContentCache.transferTo(file, out);
+            }
+            return repository.save(DocText.of(docId, extractPages(tempFile.toFile())));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static List<String> extractPages(File file) throws IOException {
+        try (PDDocument document = Loader.loadPDF(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            stripper.setLineSeparator("\n");
+            stripper.setPageEnd(DocText.PAGE_SEPARATOR);
+            String text = stripper.getText(document);
+
+            // The last page also ends with the separator
+            List<String> pages = Arrays.asList(text.split(DocText.PAGE_SEPARATOR, -1));
+            return pages.subList(0, Math.min(pages.size(), document.getNumberOfPages()));
+        }
+    }
+}
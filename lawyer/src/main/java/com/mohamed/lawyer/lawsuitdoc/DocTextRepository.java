@@ -0,0 +1,6 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DocTextRepository extends JpaRepository<DocText, Long> {
+}
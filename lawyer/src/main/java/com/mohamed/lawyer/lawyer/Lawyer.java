@@ -35,6 +35,9 @@ public class Lawyer implements UserDetails {
 
     private String Role;
 
+    // Increased to revoke the lawyer's tokens, see LawyerPrincipal
+    private int tokenEpoch;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ADMIN"));
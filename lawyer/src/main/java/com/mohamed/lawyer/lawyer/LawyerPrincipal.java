@@ -0,0 +1,45 @@
+package com.mohamed.lawyer.lawyer;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Connected lawyer as carried by the signed JWT claims, so authenticating a request needs no DB lookup.
+ * Repositories scope their queries with {@code ?#{principal.getId()}}.
+ */
+@Getter
+@AllArgsConstructor
+public class LawyerPrincipal {
+
+    private final Long id;
+
+    private final String email;
+
+    private final List<String> roles;
+
+    // Tokens issued before the lawyer's epoch was last increased are rejected
+    private final int tokenEpoch;
+
+    public static LawyerPrincipal of(Lawyer lawyer) {
+        return new LawyerPrincipal(
+                lawyer.getId(),
+                lawyer.getEmail(),
+                lawyer.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList(),
+                lawyer.getTokenEpoch()
+        );
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return roles.stream().map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
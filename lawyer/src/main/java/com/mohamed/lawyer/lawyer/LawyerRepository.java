@@ -1,6 +1,9 @@
 package com.mohamed.lawyer.lawyer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -8,4 +11,12 @@ public interface LawyerRepository extends JpaRepository<Lawyer, Long> {
 
     Optional<Lawyer> findByEmail(String email);
 
+    @Query("SELECT l.tokenEpoch FROM Lawyer l WHERE l.id = :id")
+    Optional<Integer> findTokenEpochById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Lawyer l SET l.tokenEpoch = l.tokenEpoch + 1 WHERE l.id = :id")
+    int incrementTokenEpoch(Long id);
+
 }
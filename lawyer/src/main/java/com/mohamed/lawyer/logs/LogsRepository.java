@@ -4,10 +4,18 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface LogsRepository extends JpaRepository<Logs, Long> {
 
-    @Query("SELECT l FROM Logs l WHERE l.lawsuit.id = :lawsuitId")
+    @Override
+    @Query("SELECT l FROM Logs l WHERE l.id = :id and l.lawsuit.lawyer.id = ?#{principal.getId()}")
+    Optional<Logs> findById(Long id);
+
+    @Query("SELECT l FROM Logs l WHERE l.lawsuit.lawyer.id = ?#{principal.getId()}")
+    List<Logs> findLogsByLawyerId();
+
+    @Query("SELECT l FROM Logs l WHERE l.lawsuit.id = :lawsuitId and l.lawsuit.lawyer.id = ?#{principal.getId()}")
     List<Logs> findByLawsuitId(Long lawsuitId);
     
 }
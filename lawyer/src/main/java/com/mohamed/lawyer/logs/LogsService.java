@@ -1,10 +1,10 @@
 package com.mohamed.lawyer.logs;
 
+import com.mohamed.lawyer.config.CacheKeys;
 import com.mohamed.lawyer.lawsuit.Lawsuit;
 import com.mohamed.lawyer.lawsuit.LawsuitRepository;
 import com.mohamed.lawyer.whatsapp.WhatsAppService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -19,31 +19,31 @@ public class LogsService {
     private final LawsuitRepository lawsuitRepository;
     private final LogsMapper logsMapper;
     private final WhatsAppService whatsAppService;
+    private final CacheKeys cacheKeys;
 
     private final String CACHE_VALUE = "logs_";
 
-    @Cacheable(value = CACHE_VALUE, key = "'all_logs'")
+    @Cacheable(value = CACHE_VALUE, key = "@cacheKeys.lawyer(#root.caches[0].name, 'all')", sync = true)
     public List<LogsResponse> getAllLogs() {
-        return logsRepository.findAll()
+        return logsRepository.findLogsByLawyerId()
                 .stream()
                 .map(logsMapper::toResponse)
                 .toList();
     }
-    @Cacheable(value = CACHE_VALUE, key ="#id")
+    @Cacheable(value = CACHE_VALUE, key = "@cacheKeys.lawyer(#root.caches[0].name, 'log', #id)")
     public LogsResponse getLogById(Long id) {
         Logs logs = logsRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Log not found"));
         return logsMapper.toResponse(logs);
     }
 
-   @Cacheable(value = CACHE_VALUE, key = "#lawsuitId")
+   @Cacheable(value = CACHE_VALUE, key = "@cacheKeys.lawyer(#root.caches[0].name, 'lawsuit', #lawsuitId)", sync = true)
     public List<LogsResponse> getLogsByLawsuitId(Long lawsuitId) {
         return logsRepository.findByLawsuitId(lawsuitId)
                 .stream()
                 .map(logsMapper::toResponse)
                 .toList();
     }
-    @CacheEvict(value = CACHE_VALUE, key = "#lawsuitId")
     public Long createLog(LogsRequest request, Long lawsuitId) {
         Lawsuit lawsuit = lawsuitRepository.findById(lawsuitId)
                 .orElseThrow(() -> new IllegalArgumentException("Lawsuit not found"));
@@ -53,6 +53,7 @@ public class LogsService {
         logs.setLawsuit(lawsuit);
 
         Logs savedLog = logsRepository.save(logs);
+        evictCaches(savedLog);
 
         // Send WhatsApp notification to client
         if (lawsuit.getClientPhone() != null && !lawsuit.getClientPhone().isEmpty()) {
@@ -67,19 +68,34 @@ public class LogsService {
         return savedLog.getId();
     }
 
-    @CacheEvict(value = CACHE_VALUE, allEntries = true)
     public void updateLog(Long id, LogsRequest request) {
         Logs logs = logsRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Log not found"));
 
         logs.setMessage(request.message());
         logsRepository.save(logs);
+        evictCaches(logs);
     }
 
     public void deleteLog(Long id) {
-        if (!logsRepository.existsById(id)) {
-            throw new IllegalArgumentException("Log not found");
-        }
-        logsRepository.deleteById(id);
+        Logs logs = logsRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Log not found"));
+        logsRepository.delete(logs);
+        evictCaches(logs);
+    }
+
+    /**
+     * Invalidate the lawyer's cached logs after one of their lawsuits is renamed or deleted,
+     * cached log responses carry the lawsuit name
+     */
+    public void evictLawsuitLogs(Long lawyerId) {
+        cacheKeys.invalidateLawyer(CACHE_VALUE, lawyerId);
+    }
+
+    /**
+     * Invalidate the lawyer's cached logs: all logs, its lawsuit's logs and the log itself
+     */
+    private void evictCaches(Logs logs) {
+        cacheKeys.invalidateLawyer(CACHE_VALUE, logs.getLawsuit().getLawyer().getId());
     }
 }
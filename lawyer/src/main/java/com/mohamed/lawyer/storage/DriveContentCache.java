@@ -0,0 +1,445 @@
+package com.mohamed.lawyer.storage;
+
+import com.google.api.services.drive.model.File;
+import com.mohamed.lawyer.config.GoogleDriveConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache of Drive file content, so documents read again and again are served from disk.
+ * Files are keyed by Drive file ID and modification time: a modified file is downloaded again
+ * and its old copy ages out. The total size is bounded, least recently used files are deleted first.
+ * A miss never waits for the whole file: a full read streams from Drive to the client while copying to the cache,
+ * a range read is served from Drive while the whole file is downloaded in the background.
+ * A file is downloaded once at a time, and a download reserves the file's size in the bound when it starts.
+ * Evicting a file cancels its downloads in flight, so a file deleted while downloading is not cached again.
+ */
+@Component
+@Slf4j
+public class DriveContentCache {
+
+    // Drive file IDs are used as file names
+    private static final Pattern FILE_ID = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final String PART_SUFFIX = ".part";
+
+    private final GoogleDriveService googleDriveService;
+    private final Path directory;
+    private final long maxBytes;
+
+    // File name to size, in access order, guarded by this
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Sizes of the cached files and of the downloads in flight, guarded by this
+    private long totalBytes;
+
+    // Downloads in flight by file name, removed by evict() to cancel them, guarded by this
+    private final Map<String, Load> loads = new HashMap<>();
+
+    public DriveContentCache(GoogleDriveService googleDriveService, GoogleDriveConfig config) {
+        this.googleDriveService = googleDriveService;
+        this.directory = Path.of(config.getContentCacheDirectory());
+        this.maxBytes = config.getContentCacheMaxSize().toBytes();
+    }
+
+    /**
+     * Pick up the files cached by a previous run, oldest written first since their access order is lost
+     */
+    @PostConstruct
+    public void loadIndex() throws IOException {
+        if (maxBytes <= 0) return;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+        List<Path> cached = new ArrayList<>();
+        for (Path file : files) {
+            // Left by a download that didn't finish
+            if (file.getFileName().toString().endsWith(PART_SUFFIX)) delete(file.getFileName().toString());
+            else cached.add(file);
+        }
+        cached.sort(Comparator.comparing(DriveContentCache::lastModified));
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            for (Path file : cached) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                entries.put(name, size);
+                totalBytes += size;
+                evictOverBudget(name, evicted);
+            }
+        }
+        evicted.forEach(this::delete);
+        log.info("Drive content cache holds {} files, {} bytes", entries.size(), totalBytes);
+    }
+
+    /**
+     * Copy the whole content of a file
+     *
+     * @param file Drive metadata with id, size and modifiedTime
+     * @param outputStream Destination of the content, not closed
+     */
+    public void transferTo(File file, OutputStream outputStream) throws IOException {
+        if (isCacheable(file)) {
+            String name = name(file);
+            try (FileChannel channel = openCached(name)) {
+                if (channel != null) {
+                    transfer(channel, 0, channel.size(), outputStream);
+                    return;
+                }
+            }
+            Load load = reserve(name, file.getSize());
+            if (load != null) {
+                load(file.getId(), name, load, outputStream);
+                return;
+            }
+        }
+        googleDriveService.downloadFile(file.getId(), outputStream);
+    }
+
+    /**
+     * Copy a byte range of the content of a file
+     *
+     * @param file Drive metadata with id, size and modifiedTime
+     * @param first First byte, inclusive
+     * @param last Last byte, inclusive
+     * @param outputStream Destination of the content, not closed
+     */
+    public void transferTo(File file, long first, long last, OutputStream outputStream) throws IOException {
+        if (isCacheable(file)) {
+            String name = name(file);
+            try (FileChannel channel = openCached(name)) {
+                if (channel != null) {
+                    transfer(channel, first, last - first + 1, outputStream);
+                    return;
+                }
+            }
+            loadInBackground(file, name);
+        }
+        googleDriveService.downloadFile(file.getId(), first, last, outputStream);
+    }
+
+    /**
+     * Cached copy of a file, downloaded first on a miss, for readers that need random access to the file.
+     * The copy may be evicted at any time, open it right away and read it again on {@link NoSuchFileException}.
+     *
+     * @param file Drive metadata with id, size and modifiedTime
+     * @return The cached copy, or null if the file is not cacheable or doesn't fit in the cache now
+     */
+    public Path cachedFile(File file) throws IOException {
+        if (!isCacheable(file)) return null;
+        String name = name(file);
+
+        while (true) {
+            Load inFlight;
+            synchronized (this) {
+                if (entries.get(name) != null) return directory.resolve(name);
+                inFlight = loads.get(name);
+            }
+            if (inFlight != null) return join(inFlight);
+
+            Load load = reserve(name, file.getSize());
+            if (load != null) return load(file.getId(), name, load, null);
+            synchronized (this) {
+                // Neither cached nor downloading by another request since, the file doesn't fit
+                if (!entries.containsKey(name) && !loads.containsKey(name)) return null;
+            }
+        }
+    }
+
+    /**
+     * Delete every cached version of a file and cancel its downloads in flight
+     */
+    public void evict(String fileId) {
+        String prefix = fileId + ".";
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Load>> inFlight = loads.entrySet().iterator();
+            while (inFlight.hasNext()) {
+                Map.Entry<String, Load> load = inFlight.next();
+                if (load.getKey().startsWith(prefix)) {
+                    totalBytes -= load.getValue().reservedBytes;
+                    inFlight.remove();
+                }
+            }
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Long> entry = iterator.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    totalBytes -= entry.getValue();
+                    iterator.remove();
+                    evicted.add(entry.getKey());
+                }
+            }
+        }
+        evicted.forEach(this::delete);
+    }
+
+    synchronized long size() {
+        return totalBytes;
+    }
+
+    /**
+     * @return The cached content, or null on a miss
+     */
+    private FileChannel openCached(String name) throws IOException {
+        synchronized (this) {
+            if (entries.get(name) == null) return null;
+        }
+        try {
+            return FileChannel.open(directory.resolve(name), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the open, or deleted from the disk
+            forget(name);
+            return null;
+        }
+    }
+
+    /**
+     * Wait for another request's download of a file
+     */
+    private static Path join(Load load) throws IOException {
+        try {
+            return load.path.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw e;
+        }
+    }
+
+    private void loadInBackground(File file, String name) {
+        Load load = reserve(name, file.getSize());
+        if (load == null) return;
+
+        Thread.ofVirtual().name("drive-cache-load").start(() -> {
+            try {
+                load(file.getId(), name, load, null);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to cache Drive file {}", name, e);
+            }
+        });
+    }
+
+    /**
+     * Register a download of the file and reserve its size, evicting least recently used files to make room
+     *
+     * @return The download to run, or null if the file is already downloading or doesn't fit next to the other downloads
+     */
+    private Load reserve(String name, long size) {
+        List<String> evicted = new ArrayList<>();
+        Load load = null;
+        synchronized (this) {
+            if (!loads.containsKey(name) && !entries.containsKey(name)) {
+                totalBytes += size;
+                evictOverBudget(null, evicted);
+                if (totalBytes <= maxBytes) {
+                    load = new Load(size);
+                    loads.put(name, load);
+                } else {
+                    totalBytes -= size;
+                }
+            }
+        }
+        evicted.forEach(this::delete);
+        return load;
+    }
+
+    /**
+     * Download a reserved file to a temporary file renamed once complete, so a cached file is never partial.
+     * With a client, the content is written to it as it arrives and the download only fails if the client
+     * couldn't be served: failing to cache the file is logged.
+     *
+     * @param client Destination of the content, not closed, or null to only cache the file
+     * @return The cached file, or null if it couldn't be cached after serving the client
+     * @throws NoSuchFileException if the file was evicted while downloading
+     */
+    private Path load(String fileId, String name, Load load, OutputStream client) throws IOException {
+        boolean served = false;
+        Path part = null;
+        try {
+            part = Files.createTempFile(directory, name, PART_SUFFIX);
+            try (OutputStream out = Files.newOutputStream(part)) {
+                CopyingOutputStream copying = client == null ? null : new CopyingOutputStream(client, out);
+                googleDriveService.downloadFile(fileId, copying == null ? out : copying);
+                served = client != null;
+                if (copying != null && copying.failure != null) throw copying.failure;
+            }
+
+            Path path = directory.resolve(name);
+            if (!add(name, load, part)) {
+                throw new NoSuchFileException(path.toString(), null, "Evicted while downloading");
+            }
+            load.path.complete(path);
+            return path;
+        } catch (IOException | RuntimeException e) {
+            release(name, load);
+            load.path.completeExceptionally(e);
+            if (!served) throw e;
+            log.warn("Failed to cache Drive file {}", name, e);
+            return null;
+        } finally {
+            if (part != null) Files.deleteIfExists(part);
+        }
+    }
+
+    /**
+     * Move a downloaded file in place and replace its reservation with its actual size
+     *
+     * @return False if the download was cancelled by {@link #evict(String)}
+     */
+    private boolean add(String name, Load load, Path part) throws IOException {
+        long size = Files.size(part);
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (loads.get(name) != load) return false;
+            // Under the lock so a cancelled download can't replace the file of the download that followed it
+            Files.move(part, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            loads.remove(name);
+            totalBytes += size - load.reservedBytes;
+            entries.put(name, size);
+            evictOverBudget(name, evicted);
+        }
+        // Deleted outside the lock, readers that already opened a file can still read it
+        evicted.forEach(this::delete);
+        return true;
+    }
+
+    private synchronized void release(String name, Load load) {
+        if (loads.remove(name, load)) totalBytes -= load.reservedBytes;
+    }
+
+    /**
+     * Drop least recently used files until the total fits, the kept file aside. Called holding the lock.
+     */
+    private void evictOverBudget(String kept, List<String> evicted) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(kept)) continue;
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            evicted.add(eldest.getKey());
+        }
+    }
+
+    private synchronized void forget(String name) {
+        Long size = entries.remove(name);
+        if (size != null) totalBytes -= size;
+    }
+
+    private boolean isCacheable(File file) {
+        return maxBytes > 0
+                && file.getId() != null && FILE_ID.matcher(file.getId()).matches()
+                && file.getModifiedTime() != null
+                && file.getSize() != null && file.getSize() <= maxBytes;
+    }
+
+    private static String name(File file) {
+        return file.getId() + "." + file.getModifiedTime().getValue();
+    }
+
+    private void delete(String name) {
+        try {
+            Files.deleteIfExists(directory.resolve(name));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached Drive file {}", name, e);
+        }
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, OutputStream outputStream) throws IOException {
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        long end = position + count;
+        while (position < end) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) throw new IOException("Cached file is shorter than expected");
+            position += transferred;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Download in flight, holding its share of the size bound until it is added or released
+     */
+    private static final class Load {
+        private final CompletableFuture<Path> path = new CompletableFuture<>();
+        private final long reservedBytes;
+
+        Load(long reservedBytes) {
+            this.reservedBytes = reservedBytes;
+        }
+    }
+
+    /**
+     * Writes to the client and copies to the cached file. A failed copy is kept and the copy stops,
+     * so the cache never fails the client.
+     */
+    private static final class CopyingOutputStream extends OutputStream {
+        private final OutputStream client;
+        private final OutputStream copy;
+        private IOException failure;
+
+        CopyingOutputStream(OutputStream client, OutputStream copy) {
+            this.client = client;
+            this.copy = copy;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            client.write(b);
+            if (failure != null) return;
+            try {
+                copy.write(b);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            client.write(b, off, len);
+            if (failure != null) return;
+            try {
+                copy.write(b, off, len);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            client.flush();
+        }
+    }
+}
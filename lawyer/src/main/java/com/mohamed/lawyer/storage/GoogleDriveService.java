@@ -1,13 +1,17 @@
 package com.mohamed.lawyer.storage;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
 import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.googleapis.media.MediaHttpUploader;
 import com.google.api.client.http.FileContent;
 import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.InputStreamContent;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.client.util.store.FileDataStoreFactory;
@@ -15,18 +19,23 @@ import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.DriveScopes;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
+import com.mohamed.lawyer.config.GoogleDriveConfig;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Slf4j
@@ -35,6 +44,9 @@ public class GoogleDriveService {
     private static final String APPLICATION_NAME = "Lawyer Application";
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
 
+    // Fields of the cached metadata, also requested on upload so a new file's metadata is cached right away
+    private static final String METADATA_FIELDS = "id, name, size, mimeType, createdTime, modifiedTime, parents, md5Checksum, version";
+
     // Use environment variables for Docker compatibility, fallback to local paths for development
     private static final String CREDENTIALS_FILE_PATH = System.getenv().getOrDefault(
             "GOOGLE_CREDENTIALS_PATH",
@@ -45,8 +57,26 @@ public class GoogleDriveService {
             "lawyer/src/main/java/com/mohamed/lawyer/storage/tokens"
     );
 
+    private final GoogleDriveConfig config;
+    private final Semaphore uploadPermits;
+    private final Cache<String, File> metadata;
     private Drive driveService;
 
+    @Autowired
+    public GoogleDriveService(GoogleDriveConfig config) {
+        this.config = config;
+        this.uploadPermits = new Semaphore(config.getMaxConcurrentUploads());
+        this.metadata = Caffeine.newBuilder()
+                .maximumSize(config.getMetadataCacheMaximumSize())
+                .expireAfterWrite(config.getMetadataCacheTtl())
+                .build();
+    }
+
+    GoogleDriveService(GoogleDriveConfig config, Drive driveService) {
+        this(config);
+        this.driveService = driveService;
+    }
+
     @PostConstruct
     public void initializeDriveService() {
         try {
@@ -134,8 +164,9 @@ public class GoogleDriveService {
             // Upload file
             File uploadedFile = driveService.files().create(fileMetadata, mediaContent)
                     .setSupportsAllDrives(true)
-                    .setFields("id, name, size, mimeType, createdTime")
+                    .setFields(METADATA_FIELDS)
                     .execute();
+            metadata.put(uploadedFile.getId(), uploadedFile);
 
             log.info("File uploaded successfully: {} with ID: {}", fileName, uploadedFile.getId());
             return uploadedFile.getId();
@@ -156,23 +187,59 @@ public class GoogleDriveService {
      * @return File ID of the uploaded file
      */
     public String uploadFile(byte[] fileData, String fileName, String mimeType, String parentFolderId) {
+        return uploadFile(new ByteArrayInputStream(fileData), fileData.length, fileName, mimeType, parentFolderId);
+    }
+
+    /**
+     * Stream a file to Google Drive with a chunked resumable upload.
+     * Only one chunk of the content is held in memory at a time, and at most
+     * {@link GoogleDriveConfig#getMaxConcurrentUploads()} uploads run at once.
+     *
+     * @param content File content, read once and not closed
+     * @param length Content length in bytes
+     * @param fileName Name for the file in Google Drive
+     * @param mimeType MIME type of the file
+     * @param parentFolderId Optional parent folder ID (null for root)
+     * @return File ID of the uploaded file
+     */
+    public String uploadFile(InputStream content, long length, String fileName, String mimeType, String parentFolderId) {
         try {
-            // Create a temporary file
-            java.io.File tempFile = java.io.File.createTempFile("upload", ".tmp");
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(tempFile)) {
-                fos.write(fileData);
+            File fileMetadata = new File();
+            fileMetadata.setName(fileName);
+
+            if (parentFolderId != null) {
+                fileMetadata.setParents(Collections.singletonList(parentFolderId));
             }
 
-            String fileId = uploadFile(tempFile.getAbsolutePath(), fileName, mimeType, parentFolderId);
+            InputStreamContent mediaContent = new InputStreamContent(mimeType, content)
+                    .setLength(length)
+                    .setCloseInputStream(false);
 
-            // Clean up temporary file
-            tempFile.delete();
+            Drive.Files.Create create = driveService.files().create(fileMetadata, mediaContent)
+                    .setSupportsAllDrives(true)
+                    .setFields(METADATA_FIELDS);
+            MediaHttpUploader uploader = create.getMediaHttpUploader();
+            uploader.setDirectUploadEnabled(false);
+            uploader.setChunkSize(uploadChunkSize());
+
+            uploadPermits.acquire();
+            File uploadedFile;
+            try {
+                uploadedFile = create.execute();
+            } finally {
+                uploadPermits.release();
+            }
+            metadata.put(uploadedFile.getId(), uploadedFile);
 
-            return fileId;
+            log.info("File uploaded successfully: {} with ID: {}", fileName, uploadedFile.getId());
+            return uploadedFile.getId();
 
         } catch (IOException e) {
-            log.error("Error uploading file from byte array: {}", fileName, e);
+            log.error("Error uploading file: {}", fileName, e);
             throw new RuntimeException("Failed to upload file: " + fileName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to upload file: " + fileName, e);
         }
     }
 
@@ -183,14 +250,24 @@ public class GoogleDriveService {
      * @return File content as byte array
      */
     public byte[] downloadFile(String fileId) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        downloadFile(fileId, outputStream);
+
+        byte[] content = outputStream.toByteArray();
+        log.info("File downloaded successfully: {} bytes", content.length);
+        return content;
+    }
+
+    /**
+     * Stream file content from Google Drive
+     *
+     * @param fileId Google Drive file ID
+     * @param outputStream Destination of the content, not closed
+     */
+    public void downloadFile(String fileId, OutputStream outputStream) {
         try {
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             driveService.files().get(fileId).executeMediaAndDownloadTo(outputStream);
 
-            byte[] content = outputStream.toByteArray();
-            log.info("File downloaded successfully: {} bytes", content.length);
-            return content;
-
         } catch (IOException e) {
             log.error("Error downloading file with ID: {}", fileId, e);
             throw new RuntimeException("Failed to download file with ID: " + fileId, e);
@@ -198,15 +275,42 @@ public class GoogleDriveService {
     }
 
     /**
-     * Get file metadata
+     * Stream a byte range of file content from Google Drive, in a single request
+     *
+     * @param fileId Google Drive file ID
+     * @param first First byte, inclusive
+     * @param last Last byte, inclusive
+     * @param outputStream Destination of the content, not closed
+     */
+    public void downloadFile(String fileId, long first, long last, OutputStream outputStream) {
+        try {
+            Drive.Files.Get get = driveService.files().get(fileId);
+            get.getMediaHttpDownloader()
+                    .setDirectDownloadEnabled(true)
+                    .setContentRange(first, last);
+            get.executeMediaAndDownloadTo(outputStream);
+
+        } catch (IOException e) {
+            log.error("Error downloading bytes {}-{} of file with ID: {}", first, last, fileId, e);
+            throw new RuntimeException("Failed to download file with ID: " + fileId, e);
+        }
+    }
+
+    /**
+     * Get file metadata, cached until this application changes the file or the TTL expires.
+     * Concurrent misses for the same file make a single Drive call.
      * 
      * @param fileId Google Drive file ID
-     * @return File metadata
+     * @return File metadata, shared and not to be modified
      */
     public File getFileMetadata(String fileId) {
+        return metadata.get(fileId, this::fetchFileMetadata);
+    }
+
+    private File fetchFileMetadata(String fileId) {
         try {
             File file = driveService.files().get(fileId)
-                    .setFields("id, name, size, mimeType, createdTime, modifiedTime, parents")
+                    .setFields(METADATA_FIELDS)
                     .execute();
 
             log.info("Retrieved metadata for file: {}", file.getName());
@@ -280,6 +384,7 @@ public class GoogleDriveService {
     public void deleteFile(String fileId) {
         try {
             driveService.files().delete(fileId).execute();
+            metadata.invalidate(fileId);
             log.info("File deleted successfully: {}", fileId);
 
         } catch (IOException e) {
@@ -335,6 +440,7 @@ public class GoogleDriveService {
                     .setAddParents(newParentId)
                     .setRemoveParents(previousParents)
                     .execute();
+            metadata.invalidate(fileId);
 
             log.info("File moved successfully: {} to folder: {}", fileId, newParentId);
 
@@ -368,6 +474,12 @@ public class GoogleDriveService {
         }
     }
 
+    private int uploadChunkSize() {
+        long chunkSize = config.getUploadChunkSize().toBytes();
+        long chunks = Math.max(1, chunkSize / MediaHttpUploader.MINIMUM_CHUNK_SIZE);
+        return Math.toIntExact(chunks * MediaHttpUploader.MINIMUM_CHUNK_SIZE);
+    }
+
     /**
      * Check if service is initialized and ready
      * 
@@ -1,33 +1,138 @@
 package com.mohamed.lawyer.utils;
 
+/**
+ * Single pass Arabic normalizer driven by a lookup table over the Arabic block (U+0600..U+06FF):
+ * alif/ya/ta-marbuta/hamza folding, diacritic and tatweel removal and Arabic-Indic digits.
+ * Input that is already normalized is returned as is without allocating. Otherwise the result is built in a buffer
+ * sized from the input, which is never outgrown since normalizing only maps or drops chars.
+ * Callers building a larger string can pass their own buffer to {@link #appendNormalized(CharSequence, StringBuilder)}.
+ */
 public class ArabicNormalizer {
 
+    private static final char BLOCK_START = '\u0600';
+    private static final char REMOVE = '\uFFFF';
+    private static final char[] TABLE = new char[0x100];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            TABLE[i] = (char) (BLOCK_START + i);
+        }
+
+        // Normalize Alif variants
+        map('أ', 'ا');
+        map('إ', 'ا');
+        map('آ', 'ا');
+
+        map('ى', 'ي');
+        map('ئ', 'ي');
+        map('ة', 'ه');
+        map('ؤ', 'و');
+
+        // Tashkeel (fathatan .. sukun) and tatweel
+        for (char c = '\u064B'; c <= '\u0652'; c++) map(c, REMOVE);
+        map('ـ', REMOVE);
+
+        for (char c = '٠'; c <= '٩'; c++) map(c, (char) ('0' + (c - '٠')));
+    }
+
+    private static void map(char from, char to) {
+        TABLE[from - BLOCK_START] = to;
+    }
+
+    private static char fold(char c) {
+        int index = c - BLOCK_START;
+        return index >= 0 && index < TABLE.length ? TABLE[index] : c;
+    }
+
     public static String normalize(String input) {
         if (input == null) return null;
 
-        return input
-                // Normalize Alif variants
-                .replace("أ", "ا")
-                .replace("إ", "ا")
-                .replace("آ", "ا")
-
-                .replace("ى", "ي")
-                .replace("ي", "ي")
-                .replace("ئ", "ي")
-                .replace("ة", "ه")
-                .replace("ؤ", "و")
-                .replace("ئ", "ي")
-                .replaceAll("[ًٌٍَُِّْ]", "")
-                .replace("ـ", "")
-                .replace("٠", "0")
-                .replace("١", "1")
-                .replace("٢", "2")
-                .replace("٣", "3")
-                .replace("٤", "4")
-                .replace("٥", "5")
-                .replace("٦", "6")
-                .replace("٧", "7")
-                .replace("٨", "8")
-                .replace("٩", "9");
+        int first = firstChange(input, false);
+        if (first < 0) return input;
+
+        StringBuilder buffer = new StringBuilder(input.length());
+        buffer.append(input, 0, first);
+        append(input, first, buffer, false);
+        return buffer.toString();
+    }
+
+    /**
+     * Normalized form used by search: {@link #normalize(String)} plus lower case,
+     * whitespace runs collapsed to one space and trimmed, all in the same pass
+     */
+    public static String normalizeForSearch(String input) {
+        if (input == null) return null;
+
+        int first = firstChange(input, true);
+        if (first < 0) return input;
+
+        StringBuilder buffer = new StringBuilder(input.length());
+        buffer.append(input, 0, first);
+        append(input, first, buffer, true);
+        return buffer.toString();
+    }
+
+    /**
+     * Append the normalized form of the input to the given builder
+     *
+     * @param input Text to normalize
+     * @param out Builder to append to
+     * @return The same builder
+     */
+    public static StringBuilder appendNormalized(CharSequence input, StringBuilder out) {
+        if (input != null) append(input, 0, out, false);
+        return out;
+    }
+
+    public static boolean isNormalized(CharSequence input) {
+        return input == null || firstChange(input, false) < 0;
+    }
+
+    public static boolean isNormalizedForSearch(CharSequence input) {
+        return input == null || firstChange(input, true) < 0;
+    }
+
+    /**
+     * Index of the first char the normalization would change, or -1 when the input is already normalized
+     */
+    private static int firstChange(CharSequence input, boolean search) {
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (fold(c) != c) return i;
+            if (!search) continue;
+
+            if (Character.isWhitespace(c)) {
+                boolean edge = i == 0 || i == length - 1;
+                if (c != ' ' || edge || input.charAt(i - 1) == ' ') return i;
+            } else if (Character.toLowerCase(c) != c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void append(CharSequence input, int from, StringBuilder out, boolean search) {
+        boolean pendingSpace = false;
+        for (int i = from; i < input.length(); i++) {
+            char c = fold(input.charAt(i));
+            if (c == REMOVE) continue;
+
+            if (search) {
+                if (Character.isWhitespace(c)) {
+                    pendingSpace = out.length() > 0 && out.charAt(out.length() - 1) != ' ';
+                    continue;
+                }
+                if (pendingSpace) {
+                    out.append(' ');
+                    pendingSpace = false;
+                }
+                c = Character.toLowerCase(c);
+            }
+            out.append(c);
+        }
+        if (search && out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+            out.setLength(out.length() - 1);
+        }
     }
 }
@@ -0,0 +1,218 @@
+package com.mohamed.lawyer.utils;
+
+import java.util.Arrays;
+
+/**
+ * Allocation-free Levenshtein distance engine.
+ * Patterns up to 64 chars use the Myers/Hyyrö bit-parallel algorithm, longer ones a banded DP.
+ * Every method takes a maximum distance and stops as soon as the result is known to exceed it.
+ * Instances keep scratch buffers and are not thread-safe: create one per search, or per chunk of a parallel search,
+ * and reuse it for every string it compares. Request threads are virtual and short-lived, so a per-thread instance
+ * would be allocated again on every request.
+ */
+public final class EditDistance {
+
+    private static final int WORD_SIZE = Long.SIZE;
+    private static final int TABLE_SIZE = 128;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    // Pattern match vectors (Peq) in an open-addressing table, entries are valid for the current stamp only
+    private final char[] keys = new char[TABLE_SIZE];
+    private final long[] masks = new long[TABLE_SIZE];
+    private final int[] stamps = new int[TABLE_SIZE];
+    private int stamp;
+
+    private int[] previousRow = new int[WORD_SIZE];
+    private int[] currentRow = new int[WORD_SIZE];
+
+    /**
+     * Levenshtein distance between two strings
+     *
+     * @param a First string
+     * @param b Second string
+     * @param maxDistance Largest distance the caller is interested in
+     * @return The distance, or {@code maxDistance + 1} when it is larger than {@code maxDistance}
+     */
+    public int distance(CharSequence a, CharSequence b, int maxDistance) {
+        CharSequence pattern = a.length() <= b.length() ? a : b;
+        CharSequence text = pattern == a ? b : a;
+        int m = pattern.length();
+        int n = text.length();
+
+        if (n - m > maxDistance) return maxDistance + 1;
+        if (m == 0) return n;
+
+        // The distance never exceeds the longer length, a tighter bound keeps the band arithmetic in range
+        maxDistance = Math.min(maxDistance, n);
+
+        return m <= WORD_SIZE
+                ? bitParallel(pattern, text, maxDistance, true)
+                : banded(pattern, text, maxDistance);
+    }
+
+    /**
+     * Smallest Levenshtein distance between the pattern and any substring of the text
+     *
+     * @param pattern Pattern to look for, usually the search query
+     * @param text Text to search in
+     * @param maxDistance Largest distance the caller is interested in
+     * @return The distance, or {@code maxDistance + 1} when it is larger than {@code maxDistance}
+     */
+    public int substringDistance(CharSequence pattern, CharSequence text, int maxDistance) {
+        int m = pattern.length();
+        if (m == 0) return 0;
+        if (text.length() == 0) return m <= maxDistance ? m : maxDistance + 1;
+
+        maxDistance = Math.min(maxDistance, m);
+
+        return m <= WORD_SIZE
+                ? bitParallel(pattern, text, maxDistance, false)
+                : substringDp(pattern, text, maxDistance);
+    }
+
+    private int bitParallel(CharSequence pattern, CharSequence text, int maxDistance, boolean global) {
+        loadPattern(pattern);
+
+        int m = pattern.length();
+        int n = text.length();
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+        int best = m;
+
+        for (int j = 0; j < n; j++) {
+            long eq = peq(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+
+            // Row 0 is 0..n for a global distance and all zeros when the match may start anywhere
+            ph = global ? (ph << 1) | 1L : ph << 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            if (global) {
+                // The score moves by at most one per remaining column
+                if (score - (n - j - 1) > maxDistance) return maxDistance + 1;
+            } else if (score < best) {
+                best = score;
+                if (best == 0) return 0;
+            }
+        }
+
+        int result = global ? score : best;
+        return result <= maxDistance ? result : maxDistance + 1;
+    }
+
+    private int banded(CharSequence pattern, CharSequence text, int maxDistance) {
+        int m = pattern.length();
+        int n = text.length();
+        int limit = maxDistance + 1;
+        int[] previous = rows(n + 1);
+        int[] current = currentRow;
+
+        for (int j = 0; j <= n; j++) previous[j] = Math.min(j, limit);
+
+        for (int i = 1; i <= m; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(n, i + maxDistance);
+            if (from > to) return limit;
+
+            current[from - 1] = from == 1 ? Math.min(i, limit) : limit;
+            int rowMin = current[from - 1];
+            char c = pattern.charAt(i - 1);
+
+            for (int j = from; j <= to; j++) {
+                int cost = c == text.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                value = Math.min(value, limit);
+                current[j] = value;
+                if (value < rowMin) rowMin = value;
+            }
+            if (to < n) current[to + 1] = limit;
+
+            if (rowMin > maxDistance) return limit;
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return Math.min(previous[n], limit);
+    }
+
+    private int substringDp(CharSequence pattern, CharSequence text, int maxDistance) {
+        int m = pattern.length();
+        int[] column = rows(m + 1);
+        for (int i = 0; i <= m; i++) column[i] = i;
+
+        int best = m;
+        for (int j = 0; j < text.length(); j++) {
+            char c = text.charAt(j);
+            int diagonal = column[0];
+            for (int i = 1; i <= m; i++) {
+                int up = column[i];
+                int cost = pattern.charAt(i - 1) == c ? 0 : 1;
+                column[i] = Math.min(Math.min(up + 1, column[i - 1] + 1), diagonal + cost);
+                diagonal = up;
+            }
+            if (column[m] < best) {
+                best = column[m];
+                if (best == 0) break;
+            }
+        }
+
+        return best <= maxDistance ? best : maxDistance + 1;
+    }
+
+    private int[] rows(int size) {
+        if (previousRow.length < size) {
+            int capacity = Math.max(size, previousRow.length * 2);
+            previousRow = new int[capacity];
+            currentRow = new int[capacity];
+        }
+        return previousRow;
+    }
+
+    private void loadPattern(CharSequence pattern) {
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int slot = slot(c);
+            while (stamps[slot] == stamp && keys[slot] != c) {
+                slot = (slot + 1) & TABLE_MASK;
+            }
+            if (stamps[slot] != stamp) {
+                stamps[slot] = stamp;
+                keys[slot] = c;
+                masks[slot] = 0L;
+            }
+            masks[slot] |= 1L << i;
+        }
+    }
+
+    private long peq(char c) {
+        int slot = slot(c);
+        while (stamps[slot] == stamp) {
+            if (keys[slot] == c) return masks[slot];
+            slot = (slot + 1) & TABLE_MASK;
+        }
+        return 0L;
+    }
+
+    private static int slot(char c) {
+        return (c ^ (c >>> 7)) & TABLE_MASK;
+    }
+}
@@ -2,6 +2,14 @@ package com.mohamed.lawyer.utils;
 
 public class FuzzyUtils {
 
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Levenshtein similarity of the lower cased, {@link ArabicNormalizer#normalize(String) normalized} strings.
+     * Whitespace is compared as is, unlike the search overloads below.
+     *
+     * @return Similarity in [0, 1]
+     */
     public static double similarity(String s1, String s2) {
         if (s1 == null || s2 == null) return 0.0;
 
@@ -10,30 +18,76 @@ public class FuzzyUtils {
 
         if (s1.isEmpty() || s2.isEmpty()) return 0.0;
 
-        int distance = levenshtein(s1, s2);
         int maxLen = Math.max(s1.length(), s2.length());
+        return score(new EditDistance().distance(s1, s2, maxLen), maxLen);
+    }
+
+    /**
+     * Levenshtein similarity that gives up as soon as the score can't reach {@code minSimilarity}
+     *
+     * @return Similarity in [0, 1], or 0 when it is below {@code minSimilarity}
+     */
+    public static double similarity(String s1, String s2, double minSimilarity) {
+        return similarity(new EditDistance(), s1, s2, minSimilarity);
+    }
 
-        double rawScore = 1.0 - ((double) distance / maxLen);
+    /**
+     * {@link #similarity(String, String, double)} with the caller's engine, for callers comparing many strings
+     */
+    public static double similarity(EditDistance editDistance, String s1, String s2, double minSimilarity) {
+        if (s1 == null || s2 == null) return 0.0;
 
-        return Math.max(0.0, Math.min(1.0, rawScore));
+        // Already normalized input (e.g. from the search index) is returned as is
+        s1 = ArabicNormalizer.normalizeForSearch(s1);
+        s2 = ArabicNormalizer.normalizeForSearch(s2);
+
+        if (s1.isEmpty() || s2.isEmpty()) return 0.0;
+
+        int maxLen = Math.max(s1.length(), s2.length());
+        int maxDistance = maxDistance(maxLen, minSimilarity);
+
+        int distance = editDistance.distance(s1, s2, maxDistance);
+        if (distance > maxDistance) return 0.0;
+
+        return score(distance, maxLen);
+    }
+
+    /**
+     * Similarity between the query and its best matching substring of the text,
+     * so a short query isn't penalized for a long text
+     *
+     * @return Similarity in [0, 1], or 0 when it is below {@code minSimilarity}
+     */
+    public static double substringSimilarity(String query, String text, double minSimilarity) {
+        return substringSimilarity(new EditDistance(), query, text, minSimilarity);
     }
 
-    private static int levenshtein(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+    /**
+     * {@link #substringSimilarity(String, String, double)} with the caller's engine, for callers comparing many strings
+     */
+    public static double substringSimilarity(EditDistance editDistance, String query, String text, double minSimilarity) {
+        if (query == null || text == null) return 0.0;
 
-        for (int i = 0; i <= s1.length(); i++) dp[i][0] = i;
-        for (int j = 0; j <= s2.length(); j++) dp[0][j] = j;
+        query = ArabicNormalizer.normalizeForSearch(query);
+        text = ArabicNormalizer.normalizeForSearch(text);
 
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                int cost = (s1.charAt(i - 1) == s2.charAt(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost
-                );
-            }
-        }
+        if (query.isEmpty() || text.isEmpty()) return 0.0;
 
-        return dp[s1.length()][s2.length()];
+        int maxDistance = maxDistance(query.length(), minSimilarity);
+
+        int distance = editDistance.substringDistance(query, text, maxDistance);
+        if (distance > maxDistance) return 0.0;
+
+        return score(distance, query.length());
+    }
+
+    private static int maxDistance(int length, double minSimilarity) {
+        return (int) Math.floor((1.0 - minSimilarity) * length + EPSILON);
+    }
+
+    private static double score(int distance, int length) {
+        double rawScore = 1.0 - ((double) distance / length);
+
+        return Math.max(0.0, Math.min(1.0, rawScore));
     }
 }
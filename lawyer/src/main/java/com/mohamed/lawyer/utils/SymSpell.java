@@ -0,0 +1,141 @@
+package com.mohamed.lawyer.utils;
+
+import java.util.*;
+
+/**
+ * Symmetric delete spelling dictionary (SymSpell).
+ * Every word is indexed under all the strings obtained by deleting up to {@code maxEditDistance} chars
+ * from its prefix, so a lookup only generates deletes of the input instead of comparing it with every word.
+ * Words are reference counted and can be removed, so the dictionary can follow a changing vocabulary.
+ * Not thread-safe, callers guard it with their own lock.
+ */
+public class SymSpell {
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+
+    private final Map<String, Integer> words = new HashMap<>();
+    private final Map<String, List<String>> deletes = new HashMap<>();
+
+    /**
+     * @param maxEditDistance Largest distance a lookup can ask for
+     * @param prefixLength Only this many leading chars are used to generate deletes, which bounds the index size
+     */
+    public SymSpell(int maxEditDistance, int prefixLength) {
+        if (prefixLength <= maxEditDistance) {
+            throw new IllegalArgumentException("prefixLength must be greater than maxEditDistance");
+        }
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = prefixLength;
+    }
+
+    public void add(String word) {
+        if (word.isEmpty() || words.merge(word, 1, Integer::sum) > 1) return;
+
+        for (String delete : deletes(word)) {
+            deletes.computeIfAbsent(delete, d -> new ArrayList<>(2)).add(word);
+        }
+    }
+
+    public void remove(String word) {
+        Integer count = words.get(word);
+        if (count == null) return;
+        if (count > 1) {
+            words.put(word, count - 1);
+            return;
+        }
+
+        words.remove(word);
+        for (String delete : deletes(word)) {
+            List<String> indexed = deletes.get(delete);
+            if (indexed == null) continue;
+            indexed.remove(word);
+            if (indexed.isEmpty()) deletes.remove(delete);
+        }
+    }
+
+    public boolean contains(String word) {
+        return words.containsKey(word);
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * Words within {@code maxDistance} edits of the input
+     *
+     * @param input Word to correct
+     * @param maxDistance Largest distance to accept, at most the dictionary's {@code maxEditDistance}
+     * @param maxSuggestions Maximum number of suggestions to return
+     * @return Suggestions closest first, then most frequent first
+     */
+    public List<Suggestion> lookup(String input, int maxDistance, int maxSuggestions) {
+        return lookup(input, maxDistance, maxSuggestions, new EditDistance());
+    }
+
+    /**
+     * {@link #lookup(String, int, int)} with the caller's engine, for callers looking up several words
+     */
+    public List<Suggestion> lookup(String input, int maxDistance, int maxSuggestions, EditDistance editDistance) {
+        maxDistance = Math.min(maxDistance, maxEditDistance);
+        if (input.isEmpty() || maxSuggestions < 1) return List.of();
+
+        Set<String> checked = new HashSet<>();
+        List<Suggestion> suggestions = new ArrayList<>();
+
+        for (String delete : deletes(input, maxDistance)) {
+            List<String> indexed = deletes.get(delete);
+            if (indexed == null) continue;
+
+            for (String word : indexed) {
+                if (Math.abs(word.length() - input.length()) > maxDistance || !checked.add(word)) continue;
+
+                int distance = editDistance.distance(input, word, maxDistance);
+                if (distance <= maxDistance) {
+                    suggestions.add(new Suggestion(word, distance, words.get(word)));
+                }
+            }
+        }
+
+        suggestions.sort(Comparator.comparingInt(Suggestion::distance)
+                .thenComparing(Comparator.comparingInt(Suggestion::count).reversed())
+                .thenComparing(Suggestion::term));
+        return suggestions.size() > maxSuggestions ? List.copyOf(suggestions.subList(0, maxSuggestions)) : suggestions;
+    }
+
+    private Set<String> deletes(String word) {
+        return deletes(word, maxEditDistance);
+    }
+
+    /**
+     * The word's prefix and every string obtained by deleting up to {@code distance} chars from it
+     */
+    private Set<String> deletes(String word, int distance) {
+        String prefix = word.length() > prefixLength ? word.substring(0, prefixLength) : word;
+
+        Set<String> result = new HashSet<>();
+        result.add(prefix);
+        List<String> level = List.of(prefix);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String candidate : level) {
+                if (candidate.isEmpty()) continue;
+                for (int i = 0; i < candidate.length(); i++) {
+                    String delete = candidate.substring(0, i) + candidate.substring(i + 1);
+                    if (result.add(delete)) next.add(delete);
+                }
+            }
+            level = next;
+        }
+        return result;
+    }
+
+    /**
+     * @param term Dictionary word
+     * @param distance Edit distance from the input
+     * @param count Number of times the word was added
+     */
+    public record Suggestion(String term, int distance, int count) {
+    }
+}
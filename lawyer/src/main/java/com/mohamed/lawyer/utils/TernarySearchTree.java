@@ -0,0 +1,105 @@
+package com.mohamed.lawyer.utils;
+
+import java.util.*;
+
+/**
+ * Ternary search tree mapping string keys to reference counted values, for prefix completion.
+ * A key can hold several values and a value is kept until it was removed as many times as it was added.
+ * Not thread-safe, callers guard it with their own lock.
+ *
+ * @param <T> Value type
+ */
+public class TernarySearchTree<T> {
+
+    private Node<T> root;
+
+    public void add(String key, T value) {
+        if (key.isEmpty()) return;
+        Node<T> node = node(key, true);
+        if (node.values == null) node.values = new LinkedHashMap<>(2);
+        node.values.merge(value, 1, Integer::sum);
+    }
+
+    public void remove(String key, T value) {
+        if (key.isEmpty()) return;
+        Node<T> node = node(key, false);
+        if (node == null || node.values == null) return;
+
+        node.values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null);
+        if (node.values.isEmpty()) node.values = null;
+    }
+
+    /**
+     * Values of the keys starting with the prefix, in key order
+     *
+     * @param prefix Key prefix
+     * @param limit Maximum number of distinct values to return
+     * @return Distinct values, the exact key first then in lexicographic key order
+     */
+    public List<T> complete(String prefix, int limit) {
+        if (prefix.isEmpty() || limit < 1) return List.of();
+        Node<T> node = node(prefix, false);
+        if (node == null) return List.of();
+
+        Set<T> completions = new LinkedHashSet<>();
+        collect(node.values, completions, limit);
+        collect(node.eq, completions, limit);
+        return List.copyOf(completions);
+    }
+
+    private Node<T> node(String key, boolean create) {
+        if (root == null) {
+            if (!create) return null;
+            root = new Node<>(key.charAt(0));
+        }
+
+        Node<T> node = root;
+        int i = 0;
+        while (true) {
+            char c = key.charAt(i);
+            Node<T> next;
+            if (c < node.c) {
+                next = node.lo;
+                if (next == null && create) next = node.lo = new Node<>(c);
+            } else if (c > node.c) {
+                next = node.hi;
+                if (next == null && create) next = node.hi = new Node<>(c);
+            } else {
+                if (++i == key.length()) return node;
+                next = node.eq;
+                if (next == null && create) next = node.eq = new Node<>(key.charAt(i));
+            }
+            if (next == null) return null;
+            node = next;
+        }
+    }
+
+    private static <T> void collect(Node<T> node, Set<T> completions, int limit) {
+        if (node == null || completions.size() >= limit) return;
+
+        collect(node.lo, completions, limit);
+        collect(node.values, completions, limit);
+        collect(node.eq, completions, limit);
+        collect(node.hi, completions, limit);
+    }
+
+    private static <T> void collect(Map<T, Integer> values, Set<T> completions, int limit) {
+        if (values == null) return;
+        for (T value : values.keySet()) {
+            if (completions.size() >= limit) return;
+            completions.add(value);
+        }
+    }
+
+    private static final class Node<T> {
+        private final char c;
+        private Node<T> lo;
+        private Node<T> eq;
+        private Node<T> hi;
+        private Map<T, Integer> values;
+
+        Node(char c) {
+            this.c = c;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mohamed.lawyer.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the K greatest items offered to it in a bounded min-heap,
+ * so selecting the best results never holds or sorts more than K items.
+ *
+ * @param <T> Item type
+ */
+public class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> comparator;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param k Number of items to keep
+     * @param comparator Order of the items, the greatest ones are kept
+     */
+    public TopK(int k, Comparator<? super T> comparator) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        this.k = k;
+        this.comparator = comparator;
+        this.heap = new PriorityQueue<>(k, comparator);
+    }
+
+    /**
+     * @return {@code true} if the item is among the K greatest so far
+     */
+    public boolean offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+            return true;
+        }
+        if (comparator.compare(item, heap.peek()) <= 0) return false;
+
+        heap.poll();
+        heap.add(item);
+        return true;
+    }
+
+    /**
+     * Offer every item kept by another instance, used to merge partial results
+     */
+    public void offerAll(TopK<? extends T> other) {
+        other.heap.forEach(this::offer);
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * @return The kept items, greatest first
+     */
+    public List<T> toSortedList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(comparator.reversed());
+        return items;
+    }
+}
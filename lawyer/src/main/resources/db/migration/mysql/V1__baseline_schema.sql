@@ -0,0 +1,53 @@
+-- Schema as previously created by hibernate ddl-auto, kept idempotent so existing databases baseline cleanly
+
+CREATE TABLE IF NOT EXISTS lawyer
+(
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    email      VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    password   VARCHAR(255),
+    phone      VARCHAR(255),
+    role       VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS lawsuit
+(
+    id                     BIGINT NOT NULL AUTO_INCREMENT,
+    client_name            VARCHAR(255),
+    client_phone           VARCHAR(255),
+    date                   DATE,
+    description            VARCHAR(255),
+    folder_id              VARCHAR(255),
+    is_deleted             BIT    NOT NULL,
+    last_modified          DATE,
+    name                   VARCHAR(255),
+    notes                  VARCHAR(255),
+    status                 TINYINT,
+    lawyer_id              BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_lawsuit_lawyer FOREIGN KEY (lawyer_id) REFERENCES lawyer (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS docs
+(
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    created_date DATETIME(6),
+    description  VARCHAR(255),
+    file_id      VARCHAR(255),
+    name         VARCHAR(255),
+    lawsuit_id   BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_docs_lawsuit FOREIGN KEY (lawsuit_id) REFERENCES lawsuit (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS logs
+(
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    date       DATETIME(6),
+    message    VARCHAR(255),
+    lawsuit_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_logs_lawsuit FOREIGN KEY (lawsuit_id) REFERENCES lawsuit (id)
+) ENGINE = InnoDB;
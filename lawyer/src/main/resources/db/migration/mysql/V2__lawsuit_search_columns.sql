@@ -0,0 +1,9 @@
+-- Normalized copies of the searchable lawsuit columns, filled for existing rows by LawsuitSearchColumnsBackfill
+
+ALTER TABLE lawsuit
+    ADD COLUMN normalized_name        VARCHAR(255),
+    ADD COLUMN normalized_description VARCHAR(255),
+    ADD COLUMN normalized_client_name VARCHAR(255);
+
+-- Full-text search matches on the normalized columns
+CREATE FULLTEXT INDEX ft_lawsuit_name_description ON lawsuit (normalized_name, normalized_description) WITH PARSER ngram;
@@ -0,0 +1,5 @@
+-- ngram parser full-text indexes so substring lookups on Arabic text don't need a leading-wildcard LIKE scan
+
+CREATE FULLTEXT INDEX ft_lawsuit_name ON lawsuit (normalized_name) WITH PARSER ngram;
+
+CREATE FULLTEXT INDEX ft_lawsuit_client_name ON lawsuit (normalized_client_name) WITH PARSER ngram;
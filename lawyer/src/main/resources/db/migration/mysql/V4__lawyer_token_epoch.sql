@@ -0,0 +1,3 @@
+-- Increased to revoke every JWT issued to the lawyer, tokens carry the epoch they were issued with
+
+ALTER TABLE lawyer ADD COLUMN token_epoch INT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Text extracted once from uploaded documents, gzip compressed, pages separated by a form feed
+
+CREATE TABLE doc_text
+(
+    doc_id       BIGINT   NOT NULL,
+    page_count   INT      NOT NULL,
+    content      LONGBLOB NOT NULL,
+    extracted_at DATETIME(6),
+    PRIMARY KEY (doc_id),
+    CONSTRAINT fk_doc_text_doc FOREIGN KEY (doc_id) REFERENCES docs (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- Row version bumped by every lawsuit update, single field updates apply only at the version they were prepared from
+
+ALTER TABLE lawsuit
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,51 @@
+package com.mohamed.lawyer.auth;
+
+import com.mohamed.lawyer.config.PasswordHashingConfig;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+public class PasswordHashingExecutorTest {
+
+    @Test
+    public void PasswordHashingExecutor_run_RejectsWith503WhenQueueIsFull() throws Exception {
+        PasswordHashingConfig config = new PasswordHashingConfig();
+        config.setMaxConcurrentHashes(1);
+        config.setQueueCapacity(1);
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(config);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.run(() -> {
+                started.countDown();
+                release.await();
+                return "first";
+            }));
+            started.await();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.run(() -> "second"));
+            while (!queued.isDone() && queueIsEmpty(executor)) Thread.onSpinWait();
+
+            Assertions.assertThatThrownBy(() -> executor.run(() -> "third"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> Assertions.assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+            release.countDown();
+            Assertions.assertThat(running.get()).isEqualTo("first");
+            Assertions.assertThat(queued.get()).isEqualTo("second");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static boolean queueIsEmpty(PasswordHashingExecutor executor) {
+        return ((ThreadPoolExecutor) ReflectionTestUtils.getField(executor, "executor")).getQueue().isEmpty();
+    }
+}
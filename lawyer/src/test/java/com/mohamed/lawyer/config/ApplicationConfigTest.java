@@ -0,0 +1,32 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class ApplicationConfigTest {
+
+    @Test
+    public void ApplicationConfig_passwordEncoder_MatchesAndUpgradesOutdatedHashes() {
+        PasswordHashingConfig config = new PasswordHashingConfig();
+        config.setBcryptStrength(6);
+        PasswordEncoder encoder = new ApplicationConfig(Mockito.mock(LawyerRepository.class), config).passwordEncoder();
+
+        // Stored before hashes carried their algorithm id
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+        Assertions.assertThat(encoder.matches("secret", legacyHash)).isTrue();
+        Assertions.assertThat(encoder.upgradeEncoding(legacyHash)).isTrue();
+
+        String weakHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+        Assertions.assertThat(encoder.matches("secret", weakHash)).isTrue();
+        Assertions.assertThat(encoder.upgradeEncoding(weakHash)).isTrue();
+
+        String currentHash = encoder.encode("secret");
+        Assertions.assertThat(currentHash).startsWith("{bcrypt}");
+        Assertions.assertThat(encoder.matches("secret", currentHash)).isTrue();
+        Assertions.assertThat(encoder.upgradeEncoding(currentHash)).isFalse();
+    }
+}
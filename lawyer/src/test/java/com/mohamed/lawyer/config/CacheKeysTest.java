@@ -0,0 +1,49 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+public class CacheKeysTest {
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void CacheKeys_invalidateLawyer_MovesOnlyThatLawyersKeys() {
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+        StringRedisTemplate redisTemplate = Mockito.mock(StringRedisTemplate.class);
+        Mockito.when(redisTemplate.opsForValue()).thenReturn(values);
+        Mockito.when(values.increment("cache:generation:lawsuits:1")).thenReturn(1L);
+        CacheKeys cacheKeys = new CacheKeys(new CacheGenerations(redisTemplate, new NearCacheConfig()));
+
+        connect(1L);
+        String lawyerOneKey = cacheKeys.lawyer("lawsuits", "status", "OPEN");
+        connect(2L);
+        String lawyerTwoKey = cacheKeys.lawyer("lawsuits", "status", "OPEN");
+
+        cacheKeys.invalidateLawyer("lawsuits", 1L);
+
+        connect(1L);
+        Assertions.assertThat(lawyerOneKey).isEqualTo("1:g0:status:OPEN");
+        Assertions.assertThat(cacheKeys.lawyer("lawsuits", "status", "OPEN")).isEqualTo("1:g1:status:OPEN");
+        connect(2L);
+        Assertions.assertThat(cacheKeys.lawyer("lawsuits", "status", "OPEN")).isEqualTo(lawyerTwoKey);
+    }
+
+    private static void connect(Long lawyerId) {
+        LawyerPrincipal lawyer = new LawyerPrincipal(lawyerId, "lawyer" + lawyerId + "@mail.com", List.of(), 0);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(lawyer, null, List.of()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawsuit.LawsuitResponse;
+import com.mohamed.lawyer.lawsuit.Status;
+import com.mohamed.lawyer.logs.LogsResponse;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class CacheValueSerializerTest {
+
+    @Test
+    public void CacheValueSerializer_deserialize_RoundTripsCachedLists() {
+        List<LawsuitResponse> lawsuits = IntStream.range(0, 50)
+                .mapToObj(i -> LawsuitResponse.builder()
+                        .id((long) i)
+                        .name("قضية رقم " + i)
+                        .description("وصف القضية " + i)
+                        .clientName("احمد محمد")
+                        .date(LocalDate.of(2025, 1, 1 + i % 28))
+                        .status(Status.OPEN)
+                        .build())
+                .toList();
+        List<LogsResponse> logs = List.of(new LogsResponse(1L, "جلسة", LocalDateTime.of(2025, 3, 1, 10, 0), "قضية"));
+
+        for (CacheCodec codec : CacheCodec.values()) {
+            for (int threshold : new int[]{-1, 0}) {
+                CacheValueSerializer serializer = new CacheValueSerializer(codec, threshold);
+
+                Assertions.assertThat(serializer.deserialize(serializer.serialize(lawsuits))).isEqualTo(lawsuits);
+                Assertions.assertThat(serializer.deserialize(serializer.serialize(logs))).isEqualTo(logs);
+                Assertions.assertThat(serializer.deserialize(serializer.serialize(lawsuits.getFirst()))).isEqualTo(lawsuits.getFirst());
+                CacheEntry entry = new CacheEntry(lawsuits, 42L);
+                Assertions.assertThat(serializer.deserialize(serializer.serialize(entry))).isEqualTo(entry);
+            }
+        }
+    }
+
+    @Test
+    public void CacheValueSerializer_serialize_IsSmallerThanJdkSerialization() {
+        List<LawsuitResponse> lawsuits = IntStream.range(0, 200)
+                .mapToObj(i -> LawsuitResponse.builder()
+                        .id((long) i)
+                        .name("قضية رقم " + i)
+                        .clientName("احمد محمد")
+                        .status(Status.IN_PROGRESS)
+                        .build())
+                .toList();
+
+        int jdk = new JdkSerializationRedisSerializer().serialize(lawsuits).length;
+        int smile = new CacheValueSerializer(CacheCodec.SMILE, -1).serialize(lawsuits).length;
+        int smileLz4 = new CacheValueSerializer(CacheCodec.SMILE, 0).serialize(lawsuits).length;
+
+        Assertions.assertThat(smile).isLessThan(jdk);
+        Assertions.assertThat(smileLz4).isLessThan(smile);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawsuit.LawsuitRepository;
+import com.mohamed.lawyer.lawsuit.LawsuitService;
+import com.mohamed.lawyer.lawsuit.Status;
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import com.mohamed.lawyer.logs.LogsService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CacheWarmupTest {
+
+    @Test
+    public void CacheWarmup_warmUp_LoadsCachesAsTheLawyer() throws Exception {
+        LawsuitService lawsuitService = Mockito.mock(LawsuitService.class);
+        LogsService logsService = Mockito.mock(LogsService.class);
+        CompletableFuture<Long> connectedLawyer = new CompletableFuture<>();
+        Mockito.when(logsService.getAllLogs()).thenAnswer(invocation -> {
+            connectedLawyer.complete(CacheKeys.currentLawyerId());
+            return List.of();
+        });
+        CacheWarmup warmup = new CacheWarmup(new CacheWarmupConfig(), lawsuitService, logsService,
+                Mockito.mock(LawsuitRepository.class), Mockito.mock(LawyerRepository.class));
+
+        try {
+            warmup.warmUp(Lawyer.builder().id(7L).build());
+
+            Assertions.assertThat(connectedLawyer.get(5, TimeUnit.SECONDS)).isEqualTo(7L);
+            Mockito.verify(lawsuitService).getAllLawsuits();
+            for (Status status : Status.values()) {
+                Mockito.verify(lawsuitService).getLawsuitByStatus(status);
+            }
+        } finally {
+            warmup.shutdown();
+        }
+    }
+}
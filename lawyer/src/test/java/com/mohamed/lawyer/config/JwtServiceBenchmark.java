@@ -0,0 +1,67 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token validation cost: the former path, which decoded the key, built a parser and verified
+ * the signature for the username, again for the username in isTokenValid and again for the expiration,
+ * against the single verification with the key and parser built once.
+ * Run the main method from the IDE, or org.openjdk.jmh.Main with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(JwtServiceTest.SECRET_KEY, 3_600_000L);
+        token = jwtService.generateToken(Lawyer.builder().id(42L).email("lawyer@mail.com").build());
+    }
+
+    @Benchmark
+    public boolean legacyValidation() {
+        String username = legacyClaims(token).getSubject();
+        // isTokenValid parsed the token for the username then for the expiration
+        return legacyClaims(token).getSubject().equals(username) && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public LawyerPrincipal singleParseValidation() {
+        return jwtService.extractPrincipal(token);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(JwtServiceTest.SECRET_KEY));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
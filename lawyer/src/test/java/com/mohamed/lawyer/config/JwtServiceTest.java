@@ -0,0 +1,26 @@
+package com.mohamed.lawyer.config;
+
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class JwtServiceTest {
+
+    static final String SECRET_KEY = "c2VjcmV0LWtleS1mb3ItdGhlLWp3dC1zZXJ2aWNlLXRlc3Qtb25seS0zMi1ieXRlcw==";
+
+    @Test
+    public void JwtService_extractPrincipal_ReturnsTheTokenClaims() {
+        JwtService jwtService = new JwtService(SECRET_KEY, 60_000L);
+        Lawyer lawyer = Lawyer.builder().id(42L).email("lawyer@mail.com").tokenEpoch(3).build();
+
+        LawyerPrincipal principal = jwtService.extractPrincipal(jwtService.generateToken(lawyer));
+
+        Assertions.assertThat(principal.getId()).isEqualTo(42L);
+        Assertions.assertThat(principal.getEmail()).isEqualTo("lawyer@mail.com");
+        Assertions.assertThat(principal.getRoles()).isEqualTo(List.of("ADMIN"));
+        Assertions.assertThat(principal.getTokenEpoch()).isEqualTo(3);
+    }
+}
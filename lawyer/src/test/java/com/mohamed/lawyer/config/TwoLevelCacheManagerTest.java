@@ -0,0 +1,102 @@
+package com.mohamed.lawyer.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TwoLevelCacheManagerTest {
+
+    @Test
+    public void TwoLevelCacheManager_evict_DropsOtherNodesLocalEntry() {
+        ConcurrentMapCacheManager redis = new ConcurrentMapCacheManager();
+        StringRedisTemplate nodeATemplate = Mockito.mock(StringRedisTemplate.class);
+        StringRedisTemplate nodeBTemplate = Mockito.mock(StringRedisTemplate.class);
+        TwoLevelCacheManager nodeA = new TwoLevelCacheManager(redis, new NearCacheConfig(), new RedisCacheConfig(), nodeATemplate);
+        TwoLevelCacheManager nodeB = new TwoLevelCacheManager(redis, new NearCacheConfig(), new RedisCacheConfig(), nodeBTemplate);
+        broadcast(nodeATemplate, nodeA, nodeB);
+        broadcast(nodeBTemplate, nodeB, nodeA);
+
+        Cache cacheA = nodeA.getCache("lawsuits");
+        Cache cacheB = nodeB.getCache("lawsuits");
+        cacheA.put("all", List.of("first"));
+        Assertions.assertThat(cacheB.get("all").get()).isEqualTo(List.of("first"));
+
+        // Changing L2 behind node B's back is only seen once node A's write is broadcast
+        redis.getCache("lawsuits").put("all", List.of("stale"));
+        Assertions.assertThat(cacheB.get("all").get()).isEqualTo(List.of("first"));
+
+        cacheA.put("all", List.of("second"));
+        Assertions.assertThat(cacheB.get("all").get()).isEqualTo(List.of("second"));
+
+        cacheB.evict("all");
+        Assertions.assertThat(cacheA.get("all")).isNull();
+    }
+
+    @Test
+    public void TwoLevelCache_getWithType_ReturnsValueUncheckedWithoutType() {
+        Cache cache = new TwoLevelCacheManager(new ConcurrentMapCacheManager(), new NearCacheConfig(), new RedisCacheConfig(),
+                Mockito.mock(StringRedisTemplate.class))
+                .getCache("lawsuits");
+        cache.put("all", List.of("first"));
+
+        Assertions.assertThat(cache.get("all", (Class<Object>) null)).isEqualTo(List.of("first"));
+        Assertions.assertThat(cache.get("all", List.class)).isEqualTo(List.of("first"));
+        Assertions.assertThatThrownBy(() -> cache.get("all", String.class)).isInstanceOf(IllegalStateException.class);
+        Assertions.assertThat(cache.get("missing", (Class<Object>) null)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void TwoLevelCache_getWithLoader_LoadsOnceForConcurrentMisses() throws Exception {
+        StringRedisTemplate template = Mockito.mock(StringRedisTemplate.class);
+        ValueOperations<String, String> ops = Mockito.mock(ValueOperations.class);
+        Mockito.when(template.opsForValue()).thenReturn(ops);
+        Mockito.when(ops.setIfAbsent(Mockito.anyString(), Mockito.anyString(), Mockito.any(Duration.class))).thenReturn(true);
+        Cache cache = new TwoLevelCacheManager(new ConcurrentMapCacheManager(), new NearCacheConfig(), new RedisCacheConfig(), template)
+                .getCache("lawsuits");
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("all", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return List.of("loaded");
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<Object> result : results) {
+                Assertions.assertThat(result.get()).isEqualTo(List.of("loaded"));
+            }
+        }
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private static void broadcast(StringRedisTemplate template, TwoLevelCacheManager... nodes) {
+        Mockito.doAnswer(invocation -> {
+            byte[] body = invocation.getArgument(1, String.class).getBytes(StandardCharsets.UTF_8);
+            for (TwoLevelCacheManager node : nodes) {
+                node.onMessage(new DefaultMessage(invocation.getArgument(0, String.class).getBytes(StandardCharsets.UTF_8), body), null);
+            }
+            return 1L;
+        }).when(template).convertAndSend(Mockito.anyString(), Mockito.any());
+    }
+}
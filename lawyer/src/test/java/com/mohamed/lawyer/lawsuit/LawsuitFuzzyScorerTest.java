@@ -0,0 +1,48 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+public class LawsuitFuzzyScorerTest {
+
+    private static final String ALPHABET = "ابتمحدسعل ";
+
+    @Test
+    public void LawsuitFuzzyScorer_score_ParallelMatchesSequential() {
+        Random random = new Random(7);
+        List<LawsuitSearchIndex.Candidate> candidates = LongStream.range(0, 5000)
+                .mapToObj(id -> new LawsuitSearchIndex.Candidate(id, randomText(random, 12), randomText(random, 80), 1))
+                .toList();
+
+        LawsuitSearchConfig sequentialConfig = new LawsuitSearchConfig();
+        sequentialConfig.setParallelThreshold(Integer.MAX_VALUE);
+        LawsuitSearchConfig parallelConfig = new LawsuitSearchConfig();
+        parallelConfig.setParallelThreshold(0);
+        parallelConfig.setParallelChunkSize(64);
+        parallelConfig.setParallelism(4);
+
+        LawsuitFuzzyScorer sequential = new LawsuitFuzzyScorer(sequentialConfig);
+        LawsuitFuzzyScorer parallel = new LawsuitFuzzyScorer(parallelConfig);
+        try {
+            for (int run = 0; run < 20; run++) {
+                String query = randomText(random, 6);
+                Assertions.assertThat(parallel.score(query, candidates, 21, hit -> hit.id() % 3 != 0).toSortedList())
+                        .isEqualTo(sequential.score(query, candidates, 21, hit -> hit.id() % 3 != 0).toSortedList());
+            }
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return LawsuitSearchIndex.normalize(sb.toString());
+    }
+}
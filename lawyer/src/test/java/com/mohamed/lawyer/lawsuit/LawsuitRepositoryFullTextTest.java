@@ -0,0 +1,64 @@
+package com.mohamed.lawyer.lawsuit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the Flyway migrations against a real MySQL, validates the entities against the migrated schema,
+ * and checks with EXPLAIN that the lawsuit lookups use the ngram full-text indexes instead of scanning the table.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class LawsuitRepositoryFullTextTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void LawsuitRepository_findLawsuitByClientName_UsesFullTextIndex() throws Exception {
+        assertNoFullScan(explain("findLawsuitByClientName", String.class), "ft_lawsuit_client_name");
+    }
+
+    @Test
+    public void LawsuitRepository_findAllByLawsuitName_UsesFullTextIndex() throws Exception {
+        assertNoFullScan(explain("findAllByLawsuitName", String.class), "ft_lawsuit_name");
+    }
+
+    @Test
+    public void LawsuitRepository_findByFullTextSearch_UsesFullTextIndex() throws Exception {
+        assertNoFullScan(explain("findByFullTextSearch", String.class, Long.class), "ft_lawsuit_name_description");
+    }
+
+    private List<Map<String, Object>> explain(String method, Class<?>... parameterTypes) throws Exception {
+        String sql = LawsuitRepository.class.getMethod(method, parameterTypes).getAnnotation(Query.class).value()
+                .replaceAll(":(clientName|name|searchTerm)\\b", "'\"احمد\"'")
+                .replace(":lawyerId", "1")
+                .replace("?#{principal.getId()}", "1");
+        return jdbcTemplate.queryForList("EXPLAIN " + sql);
+    }
+
+    private static void assertNoFullScan(List<Map<String, Object>> plan, String expectedIndex) {
+        Assertions.assertThat(plan).isNotEmpty();
+        Map<String, Object> row = plan.get(0);
+
+        Assertions.assertThat(row.get("type")).isNotEqualTo("ALL").isEqualTo("fulltext");
+        Assertions.assertThat(row.get("key")).isEqualTo(expectedIndex);
+    }
+}
@@ -0,0 +1,86 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.CacheKeys;
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import com.mohamed.lawyer.lawyer.Lawyer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class LawsuitSearchIndexTest {
+
+    @Test
+    public void LawsuitSearchIndex_candidates_RebuildsShardWhenAnotherNodeBumpsTheGeneration() {
+        CacheKeys cacheKeys = Mockito.mock(CacheKeys.class);
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(0L);
+        LawsuitSearchIndex index = new LawsuitSearchIndex(new LawsuitSearchConfig(), cacheKeys);
+
+        List<Lawsuit> rows = new ArrayList<>(List.of(lawsuit(10L, "عقد ايجار")));
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<Lawsuit>> loader = () -> {
+            loads.incrementAndGet();
+            return List.copyOf(rows);
+        };
+        Assertions.assertThat(ids(index.candidates(1L, "ايجار", 10, loader))).containsExactly(10L);
+
+        // A write on this node is applied to the shard without a reload
+        Lawsuit local = lawsuit(11L, "ايجار محل");
+        rows.add(local);
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(1L);
+        index.index(local, 1L);
+        Assertions.assertThat(ids(index.candidates(1L, "ايجار", 10, loader))).containsExactlyInAnyOrder(10L, 11L);
+        Assertions.assertThat(loads.get()).isEqualTo(1);
+
+        // A write on another node only shows as a new generation
+        rows.add(lawsuit(12L, "ايجار شقة"));
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(2L);
+        Assertions.assertThat(ids(index.candidates(1L, "ايجار", 10, loader))).containsExactlyInAnyOrder(10L, 11L, 12L);
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+
+        // A local write of a field the index doesn't hold keeps the shard current
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(3L);
+        index.advance(1L, 3L);
+        Assertions.assertThat(ids(index.candidates(1L, "ايجار", 10, loader))).containsExactlyInAnyOrder(10L, 11L, 12L);
+        Assertions.assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void LawsuitSearchIndex_cachedSearch_DropsResponsesOnGenerationBump() {
+        CacheKeys cacheKeys = Mockito.mock(CacheKeys.class);
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(3L);
+        LawsuitSearchIndex index = new LawsuitSearchIndex(new LawsuitSearchConfig(), cacheKeys);
+        Supplier<List<Lawsuit>> loader = () -> List.of(lawsuit(10L, "عقد ايجار"));
+        LawsuitSearchIndex.SearchKey key = new LawsuitSearchIndex.SearchKey("ايجار", 10, null, null);
+        AtomicInteger searches = new AtomicInteger();
+        Supplier<LawsuitSearchResponse> search = () -> {
+            searches.incrementAndGet();
+            return LawsuitSearchResponse.builder().results(List.of()).build();
+        };
+
+        index.cachedSearch(1L, key, loader, search);
+        index.cachedSearch(1L, key, loader, search);
+        Assertions.assertThat(searches.get()).isEqualTo(1);
+
+        // A rename on another node
+        Mockito.when(cacheKeys.generation("lawsuits", 1L)).thenReturn(4L);
+        index.cachedSearch(1L, key, loader, search);
+        Assertions.assertThat(searches.get()).isEqualTo(2);
+    }
+
+    private static List<Long> ids(List<LawsuitSearchIndex.Candidate> candidates) {
+        return candidates.stream().map(LawsuitSearchIndex.Candidate::id).toList();
+    }
+
+    private static Lawsuit lawsuit(Long id, String name) {
+        return Lawsuit.builder()
+                .id(id)
+                .name(name)
+                .lawyer(Lawyer.builder().id(1L).build())
+                .build();
+    }
+}
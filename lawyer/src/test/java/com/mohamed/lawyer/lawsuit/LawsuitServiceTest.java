@@ -0,0 +1,102 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.config.CacheKeys;
+import com.mohamed.lawyer.config.LawsuitSearchConfig;
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import com.mohamed.lawyer.lawyer.LawyerRepository;
+import com.mohamed.lawyer.logs.LogsService;
+import com.mohamed.lawyer.storage.GoogleDriveService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public class LawsuitServiceTest {
+
+    private final Lawyer owner = Lawyer.builder().id(1L).build();
+    private final LawsuitRepository repository = Mockito.mock(LawsuitRepository.class);
+    private final LawsuitSearchIndex searchIndex = Mockito.mock(LawsuitSearchIndex.class);
+    private final CacheKeys cacheKeys = Mockito.mock(CacheKeys.class);
+    private final LawsuitSnapshotCache snapshots = new LawsuitSnapshotCache(new ConcurrentMapCacheManager(), repository);
+    private final LawsuitService service = new LawsuitService(
+            repository,
+            Mockito.mock(LawsuitMapper.class),
+            Mockito.mock(GoogleDriveService.class),
+            searchIndex,
+            Mockito.mock(LawsuitFuzzyScorer.class),
+            new LawsuitSearchConfig(),
+            cacheKeys,
+            snapshots,
+            Mockito.mock(LawyerRepository.class),
+            Mockito.mock(LogsService.class)
+    );
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void LawsuitService_updateNotes_UpdatesWithoutReadingTheRowAgain() {
+        connect();
+        Mockito.when(repository.findById(10L)).thenReturn(Optional.of(lawsuit(3L, "قديم")));
+        Mockito.when(repository.updateNotes(ArgumentMatchers.eq(10L), ArgumentMatchers.eq(1L), ArgumentMatchers.anyLong(),
+                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(1);
+        Mockito.when(cacheKeys.invalidateLawyer("lawsuits", 1L)).thenReturn(5L, 6L);
+
+        service.updateNotes(10L, "first");
+        service.updateNotes(10L, "second");
+
+        // The cached snapshot follows the row's version
+        Mockito.verify(repository).updateNotes(ArgumentMatchers.eq(10L), ArgumentMatchers.eq(1L), ArgumentMatchers.eq(3L),
+                ArgumentMatchers.eq("first"), ArgumentMatchers.any());
+        Mockito.verify(repository).updateNotes(ArgumentMatchers.eq(10L), ArgumentMatchers.eq(1L), ArgumentMatchers.eq(4L),
+                ArgumentMatchers.eq("second"), ArgumentMatchers.any());
+        Mockito.verify(repository, Mockito.times(1)).findById(10L);
+        // Notes are not indexed, the shard only follows the generation
+        Mockito.verify(searchIndex).advance(1L, 5L);
+        Mockito.verify(searchIndex).advance(1L, 6L);
+        Mockito.verify(searchIndex, Mockito.never()).index(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void LawsuitService_updateDescription_RetriesStaleSnapshotAndIndexesTheUpdate() {
+        connect();
+        // Another node updated the lawsuit after this one cached it at version 3
+        Mockito.when(repository.findById(10L)).thenReturn(Optional.of(lawsuit(3L, "قديم")), Optional.of(lawsuit(5L, "قديم")));
+        Mockito.when(repository.updateDescription(ArgumentMatchers.eq(10L), ArgumentMatchers.eq(1L), ArgumentMatchers.eq(5L),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(1);
+        Mockito.when(cacheKeys.invalidateLawyer("lawsuits", 1L)).thenReturn(7L);
+        snapshots.get(10L);
+
+        service.updateDescription(10L, "جديد");
+
+        ArgumentCaptor<Supplier<Lawsuit>> indexed = ArgumentCaptor.forClass(Supplier.class);
+        Mockito.verify(searchIndex).index(ArgumentMatchers.eq(1L), ArgumentMatchers.eq(7L), indexed.capture());
+        Assertions.assertThat(indexed.getValue().get().getDescription()).isEqualTo("جديد");
+        Assertions.assertThat(indexed.getValue().get().getName()).isEqualTo("قضية");
+        Assertions.assertThat(snapshots.get(10L).version()).isEqualTo(6L);
+        Assertions.assertThat(snapshots.get(10L).description()).isEqualTo("جديد");
+        Mockito.verify(repository, Mockito.times(2)).findById(10L);
+    }
+
+    private Lawsuit lawsuit(long version, String description) {
+        return Lawsuit.builder().id(10L).lawyer(owner).version(version).name("قضية").description(description).status(Status.OPEN).build();
+    }
+
+    private void connect() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(LawyerPrincipal.of(owner), null, List.of()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mohamed.lawyer.lawsuit;
+
+import com.mohamed.lawyer.lawyer.Lawyer;
+import com.mohamed.lawyer.lawyer.LawyerPrincipal;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+public class LawsuitSnapshotCacheTest {
+
+    @AfterEach
+    public void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void LawsuitSnapshotCache_get_ChecksOwnerWithoutReadingTheRowAgain() {
+        Lawyer owner = Lawyer.builder().id(1L).build();
+        LawsuitRepository repository = Mockito.mock(LawsuitRepository.class);
+        Mockito.when(repository.findById(10L)).thenReturn(Optional.of(
+                Lawsuit.builder().id(10L).lawyer(owner).name("قضية").status(Status.OPEN).build()));
+        LawsuitSnapshotCache snapshots = new LawsuitSnapshotCache(new ConcurrentMapCacheManager(), repository);
+
+        connect(owner);
+        Assertions.assertThat(snapshots.get(10L).status()).isEqualTo(Status.OPEN);
+        Assertions.assertThat(snapshots.get(10L).name()).isEqualTo("قضية");
+
+        connect(Lawyer.builder().id(2L).build());
+        Assertions.assertThatThrownBy(() -> snapshots.get(10L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Lawsuit not found");
+
+        Mockito.verify(repository, Mockito.times(1)).findById(10L);
+    }
+
+    private static void connect(Lawyer lawyer) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(LawyerPrincipal.of(lawyer), null, List.of()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ByteRangeTest {
+
+    private static final String ETAG = "\"abc\"";
+    // Sun, 06 Nov 1994 08:49:37 GMT
+    private static final long LAST_MODIFIED = 784111777_000L;
+
+    @Test
+    public void ByteRange_resolve_ReturnsRequestedRange() {
+        Assertions.assertThat(ByteRange.resolve("bytes=0-99", null, ETAG, LAST_MODIFIED, 1000))
+                .isEqualTo(new ByteRange(0, 99));
+        Assertions.assertThat(ByteRange.resolve("bytes=900-", null, ETAG, LAST_MODIFIED, 1000))
+                .isEqualTo(new ByteRange(900, 999));
+        Assertions.assertThat(ByteRange.resolve("bytes=-100", null, ETAG, LAST_MODIFIED, 1000))
+                .isEqualTo(new ByteRange(900, 999));
+        Assertions.assertThat(ByteRange.resolve("bytes=500-5000", null, ETAG, LAST_MODIFIED, 1000).length())
+                .isEqualTo(500);
+    }
+
+    @Test
+    public void ByteRange_resolve_SendsWholeContentForUnsupportedRanges() {
+        Assertions.assertThat(ByteRange.resolve(null, null, ETAG, LAST_MODIFIED, 1000)).isNull();
+        Assertions.assertThat(ByteRange.resolve("items=0-1", null, ETAG, LAST_MODIFIED, 1000)).isNull();
+        Assertions.assertThat(ByteRange.resolve("bytes=0-1,5-6", null, ETAG, LAST_MODIFIED, 1000)).isNull();
+    }
+
+    @Test
+    public void ByteRange_resolve_RangeStartingAfterContentIsUnsatisfiable() {
+        ByteRange range = ByteRange.resolve("bytes=1000-", null, ETAG, LAST_MODIFIED, 1000);
+
+        Assertions.assertThat(range.isSatisfiable()).isFalse();
+    }
+
+    @Test
+    public void ByteRange_resolve_AppliesRangeOnlyIfRepresentationIsUnchanged() {
+        Assertions.assertThat(ByteRange.resolve("bytes=0-9", ETAG, ETAG, LAST_MODIFIED, 1000))
+                .isEqualTo(new ByteRange(0, 9));
+        Assertions.assertThat(ByteRange.resolve("bytes=0-9", "\"old\"", ETAG, LAST_MODIFIED, 1000)).isNull();
+        Assertions.assertThat(ByteRange.resolve("bytes=0-9", "Sun, 06 Nov 1994 08:49:37 GMT", ETAG, LAST_MODIFIED, 1000))
+                .isEqualTo(new ByteRange(0, 9));
+        Assertions.assertThat(ByteRange.resolve("bytes=0-9", "Sat, 05 Nov 1994 08:49:37 GMT", ETAG, LAST_MODIFIED, 1000)).isNull();
+    }
+}
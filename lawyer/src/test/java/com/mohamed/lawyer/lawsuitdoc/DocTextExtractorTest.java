@@ -0,0 +1,53 @@
+package com.mohamed.lawyer.lawsuitdoc;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class DocTextExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void DocTextExtractor_extractPages_StoresOneEntryPerPage() throws IOException {
+        List<String> pages = DocTextExtractor.extractPages(pdf("First page", "Second page", "Third page"));
+
+        Assertions.assertThat(pages).hasSize(3);
+        Assertions.assertThat(pages.get(1)).contains("Second page");
+
+        DocText docText = DocText.of(1L, pages);
+        Assertions.assertThat(docText.getPageCount()).isEqualTo(3);
+        Assertions.assertThat(docText.getPages()).isEqualTo(pages);
+        Assertions.assertThat(docText.getText()).contains("First page", "Third page");
+    }
+
+    private File pdf(String... pageTexts) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (String text : pageTexts) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            File file = tempDir.resolve("doc.pdf").toFile();
+            document.save(file);
+            return file;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.mohamed.lawyer.storage;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.drive.model.File;
+import com.mohamed.lawyer.config.GoogleDriveConfig;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DriveContentCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void DriveContentCache_transferTo_DownloadsOncePerVersion() throws Exception {
+        GoogleDriveService drive = drive();
+        DriveContentCache cache = cache(drive, DataSize.ofKilobytes(1));
+
+        Assertions.assertThat(read(cache, file("a", 1))).isEqualTo("content of a");
+        Assertions.assertThat(read(cache, file("a", 1))).isEqualTo("content of a");
+        Assertions.assertThat(read(cache, file("a", 1), 11, 11)).isEqualTo("a");
+        Mockito.verify(drive, Mockito.times(1)).downloadFile(Mockito.eq("a"), Mockito.any(OutputStream.class));
+
+        // A modified file is downloaded again
+        read(cache, file("a", 2));
+        Mockito.verify(drive, Mockito.times(2)).downloadFile(Mockito.eq("a"), Mockito.any(OutputStream.class));
+    }
+
+    @Test
+    public void DriveContentCache_transferTo_EvictsLeastRecentlyUsedOverBudget() throws Exception {
+        GoogleDriveService drive = drive();
+        // Room for two 12 byte files
+        DriveContentCache cache = cache(drive, DataSize.ofBytes(30));
+
+        read(cache, file("a", 1));
+        read(cache, file("b", 1));
+        read(cache, file("a", 1));
+        read(cache, file("c", 1));
+        Assertions.assertThat(cache.size()).isEqualTo(24);
+
+        read(cache, file("a", 1));
+        read(cache, file("b", 1));
+        Mockito.verify(drive, Mockito.times(1)).downloadFile(Mockito.eq("a"), Mockito.any(OutputStream.class));
+        Mockito.verify(drive, Mockito.times(2)).downloadFile(Mockito.eq("b"), Mockito.any(OutputStream.class));
+
+        // A new instance picks up the files on disk
+        DriveContentCache restarted = cache(drive, DataSize.ofBytes(30));
+        Assertions.assertThat(restarted.size()).isEqualTo(24);
+    }
+
+    @Test
+    public void DriveContentCache_transferTo_ServesRangeMissFromDriveAndCachesInBackground() throws Exception {
+        GoogleDriveService drive = drive();
+        DriveContentCache cache = cache(drive, DataSize.ofKilobytes(1));
+
+        Assertions.assertThat(read(cache, file("a", 1), 0, 6)).isEqualTo("content");
+        Mockito.verify(drive).downloadFile(Mockito.eq("a"), Mockito.eq(0L), Mockito.eq(6L), Mockito.any(OutputStream.class));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        // Its size is reserved from the start, the file shows up once the download is complete
+        while (!Files.exists(directory.resolve("a.1")) && System.nanoTime() < deadline) Thread.sleep(10);
+        Assertions.assertThat(cache.size()).isEqualTo(12);
+
+        Assertions.assertThat(read(cache, file("a", 1), 8, 9)).isEqualTo("of");
+        Mockito.verify(drive, Mockito.times(1)).downloadFile(Mockito.eq("a"), Mockito.anyLong(), Mockito.anyLong(), Mockito.any(OutputStream.class));
+    }
+
+    @Test
+    public void DriveContentCache_transferTo_StreamsMissBeforeDownloadEndsAndEvictCancelsIt() throws Exception {
+        GoogleDriveService drive = Mockito.mock(GoogleDriveService.class);
+        CountDownLatch deleted = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1, OutputStream.class);
+            out.write("content ".getBytes(StandardCharsets.UTF_8));
+            deleted.await();
+            out.write("of a".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(drive).downloadFile(Mockito.anyString(), Mockito.any(OutputStream.class));
+        DriveContentCache cache = cache(drive, DataSize.ofKilobytes(1));
+
+        CountDownLatch firstBytes = new CountDownLatch(1);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        OutputStream client = new OutputStream() {
+            @Override
+            public void write(int b) {
+                received.write(b);
+                firstBytes.countDown();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                received.write(b, off, len);
+                firstBytes.countDown();
+            }
+        };
+        CompletableFuture<Void> reader = CompletableFuture.runAsync(() -> {
+            try {
+                cache.transferTo(file("a", 1), client);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+
+        // The client gets the first bytes while the download is still running, its size is reserved
+        Assertions.assertThat(firstBytes.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(cache.size()).isEqualTo(12);
+
+        // The file is deleted from Drive while it is downloading
+        cache.evict("a");
+        Assertions.assertThat(cache.size()).isZero();
+        deleted.countDown();
+
+        reader.join();
+        Assertions.assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo("content of a");
+        Assertions.assertThat(cache.size()).isZero();
+        Assertions.assertThat(directory.resolve("a.1")).doesNotExist();
+    }
+
+    @Test
+    public void DriveContentCache_cachedFile_ReservesDownloadsInFlight() throws Exception {
+        GoogleDriveService drive = drive();
+        // Room for one 12 byte file
+        DriveContentCache cache = cache(drive, DataSize.ofBytes(20));
+
+        Path cached = cache.cachedFile(file("a", 1));
+        Assertions.assertThat(Files.readString(cached)).isEqualTo("content of a");
+        Assertions.assertThat(cache.cachedFile(file("a", 1))).isEqualTo(cached);
+        Mockito.verify(drive, Mockito.times(1)).downloadFile(Mockito.eq("a"), Mockito.any(OutputStream.class));
+
+        // Caching b evicts a
+        Assertions.assertThat(Files.readString(cache.cachedFile(file("b", 1)))).isEqualTo("content of b");
+        Assertions.assertThat(cached).doesNotExist();
+        Assertions.assertThat(cache.size()).isEqualTo(12);
+
+        // Not cacheable without a size
+        Assertions.assertThat(cache.cachedFile(file("c", 1).setSize(null))).isNull();
+    }
+
+    private DriveContentCache cache(GoogleDriveService drive, DataSize maxSize) throws Exception {
+        GoogleDriveConfig config = new GoogleDriveConfig();
+        config.setContentCacheDirectory(directory.toString());
+        config.setContentCacheMaxSize(maxSize);
+        DriveContentCache cache = new DriveContentCache(drive, config);
+        cache.loadIndex();
+        return cache;
+    }
+
+    private static GoogleDriveService drive() {
+        GoogleDriveService drive = Mockito.mock(GoogleDriveService.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class)
+                    .write(("content of " + invocation.getArgument(0, String.class)).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(drive).downloadFile(Mockito.anyString(), Mockito.any(OutputStream.class));
+        Mockito.doAnswer(invocation -> {
+            String content = "content of " + invocation.getArgument(0, String.class);
+            int first = (int) (long) invocation.getArgument(1, Long.class);
+            int last = (int) (long) invocation.getArgument(2, Long.class);
+            invocation.getArgument(3, OutputStream.class)
+                    .write(content.substring(first, last + 1).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(drive).downloadFile(Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(), Mockito.any(OutputStream.class));
+        return drive;
+    }
+
+    private static File file(String id, long modifiedTime) {
+        return new File().setId(id).setSize(12L).setModifiedTime(new DateTime(modifiedTime));
+    }
+
+    private static String read(DriveContentCache cache, File file) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transferTo(file, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String read(DriveContentCache cache, File file, long first, long last) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.transferTo(file, first, last, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
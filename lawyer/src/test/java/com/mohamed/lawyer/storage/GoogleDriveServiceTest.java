@@ -0,0 +1,155 @@
+package com.mohamed.lawyer.storage;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.drive.Drive;
+import com.mohamed.lawyer.config.GoogleDriveConfig;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class GoogleDriveServiceTest {
+
+    private static final String SESSION_URL = "https://upload.test/session";
+
+    @Test
+    public void GoogleDriveService_uploadFile_StreamsLargeFilesInBoundedChunks() {
+        long fileSize = DataSize.ofMegabytes(64).toBytes();
+        GoogleDriveConfig config = new GoogleDriveConfig();
+        config.setUploadChunkSize(DataSize.ofMegabytes(1));
+
+        AtomicLong received = new AtomicLong();
+        AtomicInteger chunks = new AtomicInteger();
+        // Bytes read from the source but not sent yet, a whole-file copy would read all of it before the first chunk
+        AtomicLong peakReadAhead = new AtomicLong();
+        GeneratedPdfStream source = new GeneratedPdfStream(fileSize);
+
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        if (!url.startsWith(SESSION_URL)) {
+                            return new MockLowLevelHttpResponse().addHeader("Location", SESSION_URL);
+                        }
+
+                        peakReadAhead.accumulateAndGet(source.position - received.get(), Math::max);
+                        CountingOutputStream chunk = new CountingOutputStream();
+                        getStreamingContent().writeTo(chunk);
+                        received.addAndGet(chunk.count);
+                        chunks.incrementAndGet();
+
+                        // bytes <first>-<last>/<total>
+                        String range = getFirstHeaderValue("Content-Range");
+                        long last = Long.parseLong(range.substring(range.indexOf('-') + 1, range.indexOf('/')));
+                        if (last + 1 < fileSize) {
+                            return new MockLowLevelHttpResponse().setStatusCode(308).addHeader("Range", "bytes=0-" + last);
+                        }
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("application/json; charset=UTF-8")
+                                .setContent("{\"id\": \"uploaded-file\"}");
+                    }
+                };
+            }
+        };
+        Drive drive = new Drive.Builder(transport, GsonFactory.getDefaultInstance(), null)
+                .setApplicationName("test")
+                .build();
+        GoogleDriveService service = new GoogleDriveService(config, drive);
+
+        String fileId = service.uploadFile(source, fileSize, "filing.pdf", "application/pdf", null);
+
+        Assertions.assertThat(fileId).isEqualTo("uploaded-file");
+        Assertions.assertThat(received.get()).isEqualTo(fileSize);
+        Assertions.assertThat(chunks.get()).isEqualTo(64);
+        // At most the chunk being sent and the one buffered after it
+        Assertions.assertThat(peakReadAhead.get()).isLessThanOrEqualTo(DataSize.ofMegabytes(2).toBytes());
+    }
+
+    @Test
+    public void GoogleDriveService_getFileMetadata_CachesUntilFileIsDeleted() {
+        AtomicInteger metadataCalls = new AtomicInteger();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        if (method.equals("DELETE")) return new MockLowLevelHttpResponse().setStatusCode(204);
+                        metadataCalls.incrementAndGet();
+                        return new MockLowLevelHttpResponse()
+                                .setContentType("application/json; charset=UTF-8")
+                                .setContent("{\"id\": \"file\", \"name\": \"filing.pdf\", \"size\": \"12\"}");
+                    }
+                };
+            }
+        };
+        Drive drive = new Drive.Builder(transport, GsonFactory.getDefaultInstance(), null)
+                .setApplicationName("test")
+                .build();
+        GoogleDriveService service = new GoogleDriveService(new GoogleDriveConfig(), drive);
+
+        Assertions.assertThat(service.getFileMetadata("file").getName()).isEqualTo("filing.pdf");
+        Assertions.assertThat(service.getFileMetadata("file").getSize()).isEqualTo(12L);
+        Assertions.assertThat(metadataCalls.get()).isEqualTo(1);
+
+        service.deleteFile("file");
+        service.getFileMetadata("file");
+        Assertions.assertThat(metadataCalls.get()).isEqualTo(2);
+    }
+
+    /**
+     * PDF sized content generated on the fly, so the test itself holds none of it
+     */
+    private static final class GeneratedPdfStream extends InputStream {
+        private static final byte[] HEADER = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+
+        private final long size;
+        private volatile long position;
+
+        GeneratedPdfStream(long size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position >= size) return -1;
+            long i = position++;
+            return i < HEADER.length ? HEADER[(int) i] : (int) ('0' + i % 10);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= size) return -1;
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) b[off + i] = (byte) read();
+            return n;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
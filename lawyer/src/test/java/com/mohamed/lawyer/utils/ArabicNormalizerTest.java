@@ -0,0 +1,44 @@
+package com.mohamed.lawyer.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ArabicNormalizerTest {
+
+    private static final String ALPHABET = "أإآاىيئةهؤوًٌٍَُِّْـ٠١٢٣٤٥٦٧٨٩بتمحد abcABC  ";
+
+    @Test
+    public void ArabicNormalizer_normalize_MatchesReplaceChain() {
+        Random random = new Random(3);
+        for (int run = 0; run < 5000; run++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(60);
+            for (int i = 0; i < length; i++) sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            String input = sb.toString();
+
+            Assertions.assertThat(ArabicNormalizer.normalize(input)).isEqualTo(replaceChain(input));
+            Assertions.assertThat(ArabicNormalizer.normalizeForSearch(input))
+                    .isEqualTo(replaceChain(input.toLowerCase()).trim().replaceAll("\\s+", " "));
+        }
+    }
+
+    @Test
+    public void ArabicNormalizer_normalize_ReturnsSameInstanceWhenAlreadyNormalized() {
+        String normalized = ArabicNormalizer.normalizeForSearch("  قضيةُ أحمد   ABC ");
+
+        Assertions.assertThat(normalized).isEqualTo("قضيه احمد abc");
+        Assertions.assertThat(ArabicNormalizer.normalizeForSearch(normalized)).isSameAs(normalized);
+        Assertions.assertThat(ArabicNormalizer.normalize(normalized)).isSameAs(normalized);
+    }
+
+    private static String replaceChain(String input) {
+        return input
+                .replace("أ", "ا").replace("إ", "ا").replace("آ", "ا")
+                .replace("ى", "ي").replace("ئ", "ي").replace("ة", "ه").replace("ؤ", "و")
+                .replaceAll("[ًٌٍَُِّْ]", "").replace("ـ", "")
+                .replace("٠", "0").replace("١", "1").replace("٢", "2").replace("٣", "3").replace("٤", "4")
+                .replace("٥", "5").replace("٦", "6").replace("٧", "7").replace("٨", "8").replace("٩", "9");
+    }
+}
@@ -0,0 +1,93 @@
+package com.mohamed.lawyer.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EditDistanceTest {
+
+    private static final String ALPHABET = "ابتثجحخدذرسشصضطعغفقكلمنهوي abc";
+
+    @Test
+    public void EditDistance_distance_MatchesReferenceLevenshtein() {
+        Random random = new Random(42);
+        EditDistance engine = new EditDistance();
+
+        for (int run = 0; run < 2000; run++) {
+            String a = randomString(random, random.nextInt(100));
+            String b = randomString(random, random.nextInt(100));
+            int expected = levenshtein(a, b);
+
+            Assertions.assertThat(engine.distance(a, b, Integer.MAX_VALUE - 1)).isEqualTo(expected);
+
+            int maxDistance = random.nextInt(40);
+            int bounded = engine.distance(a, b, maxDistance);
+            Assertions.assertThat(bounded).isEqualTo(expected <= maxDistance ? expected : maxDistance + 1);
+        }
+    }
+
+    @Test
+    public void EditDistance_substringDistance_MatchesReferenceSellers() {
+        Random random = new Random(7);
+        EditDistance engine = new EditDistance();
+
+        for (int run = 0; run < 2000; run++) {
+            String pattern = randomString(random, 1 + random.nextInt(90));
+            String text = randomString(random, random.nextInt(300));
+            int expected = substringLevenshtein(pattern, text);
+
+            Assertions.assertThat(engine.substringDistance(pattern, text, Integer.MAX_VALUE - 1)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void FuzzyUtils_substringSimilarity_DoesNotPenalizeLongText() {
+        String description = "دعوى ايجار شقة في المعادي مرفوعة من السيد احمد محمود ضد المالك بخصوص الزيادة";
+
+        Assertions.assertThat(FuzzyUtils.substringSimilarity("أحمد محمود", description, 0.1)).isEqualTo(1.0);
+        Assertions.assertThat(FuzzyUtils.similarity("أحمد محمود", description)).isLessThan(0.2);
+    }
+
+    @Test
+    public void FuzzyUtils_similarity_ComparesWhitespaceAsIs() {
+        // One extra space and the trailing space each cost one edit out of 11 chars
+        Assertions.assertThat(FuzzyUtils.similarity("عقد  ايجار ", "عقد ايجار")).isCloseTo(1.0 - 2.0 / 11, Assertions.within(1e-9));
+        Assertions.assertThat(FuzzyUtils.similarity("عقد  ايجار ", "عقد ايجار", 0.0)).isEqualTo(1.0);
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    private static int levenshtein(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+        for (int i = 0; i <= s1.length(); i++) dp[i][0] = i;
+        for (int j = 0; j <= s2.length(); j++) dp[0][j] = j;
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return dp[s1.length()][s2.length()];
+    }
+
+    private static int substringLevenshtein(String pattern, String text) {
+        int[][] dp = new int[pattern.length() + 1][text.length() + 1];
+        for (int i = 0; i <= pattern.length(); i++) dp[i][0] = i;
+        int best = pattern.length();
+        for (int j = 1; j <= text.length(); j++) {
+            for (int i = 1; i <= pattern.length(); i++) {
+                int cost = pattern.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+            best = Math.min(best, dp[pattern.length()][j]);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mohamed.lawyer.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the matrix based Levenshtein that FuzzyUtils used before with the EditDistance engine.
+ * Run the main method from the IDE, or org.openjdk.jmh.Main with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FuzzyUtilsBenchmark {
+
+    @Param({"احمد محمود", "قضية ايجار شقة المعادي"})
+    public String query;
+
+    @Param({"30", "2000"})
+    public int descriptionLength;
+
+    private String description;
+    private final EditDistance editDistance = new EditDistance();
+
+    @Setup
+    public void setUp() {
+        String sentence = "دعوى ايجار شقة في المعادي مرفوعة من السيد احمد محمود ضد المالك بخصوص الزيادة ";
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < descriptionLength) sb.append(sentence);
+        description = sb.substring(0, descriptionLength);
+    }
+
+    @Benchmark
+    public int legacyDistance() {
+        return legacyLevenshtein(query, description);
+    }
+
+    @Benchmark
+    public int engineDistance() {
+        return editDistance.distance(query, description, Integer.MAX_VALUE - 1);
+    }
+
+    @Benchmark
+    public double legacySimilarity() {
+        String s1 = ArabicNormalizer.normalize(query.toLowerCase());
+        String s2 = ArabicNormalizer.normalize(description.toLowerCase());
+        int distance = legacyLevenshtein(s1, s2);
+        double rawScore = 1.0 - ((double) distance / Math.max(s1.length(), s2.length()));
+        return Math.max(0.0, Math.min(1.0, rawScore));
+    }
+
+    @Benchmark
+    public double similarity() {
+        return FuzzyUtils.similarity(query, description);
+    }
+
+    @Benchmark
+    public double similarityWithThreshold() {
+        return FuzzyUtils.similarity(query, description, 0.6);
+    }
+
+    @Benchmark
+    public double substringSimilarity() {
+        return FuzzyUtils.substringSimilarity(query, description, 0.1);
+    }
+
+    private static int legacyLevenshtein(String s1, String s2) {
+        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
+
+        for (int i = 0; i <= s1.length(); i++) dp[i][0] = i;
+        for (int j = 0; j <= s2.length(); j++) dp[0][j] = j;
+
+        for (int i = 1; i <= s1.length(); i++) {
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = (s1.charAt(i - 1) == s2.charAt(j - 1)) ? 0 : 1;
+                dp[i][j] = Math.min(
+                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
+                        dp[i - 1][j - 1] + cost
+                );
+            }
+        }
+
+        return dp[s1.length()][s2.length()];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FuzzyUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
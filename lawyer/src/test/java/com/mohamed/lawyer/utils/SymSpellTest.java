@@ -0,0 +1,59 @@
+package com.mohamed.lawyer.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class SymSpellTest {
+
+    private static final String ALPHABET = "ابتمحدسعل";
+
+    @Test
+    public void SymSpell_lookup_MatchesBruteForce() {
+        Random random = new Random(5);
+        SymSpell dictionary = new SymSpell(2, 7);
+        Set<String> words = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String word = randomWord(random);
+            words.add(word);
+            dictionary.add(word);
+        }
+
+        EditDistance editDistance = new EditDistance();
+        for (int run = 0; run < 500; run++) {
+            String input = randomWord(random);
+            int maxDistance = 1 + random.nextInt(2);
+
+            Set<String> expected = new HashSet<>();
+            for (String word : words) {
+                if (editDistance.distance(input, word, maxDistance) <= maxDistance) expected.add(word);
+            }
+
+            Assertions.assertThat(dictionary.lookup(input, maxDistance, Integer.MAX_VALUE))
+                    .extracting(SymSpell.Suggestion::term)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void SymSpell_remove_DropsWordOnceUnreferenced() {
+        SymSpell dictionary = new SymSpell(2, 7);
+        dictionary.add("محمد");
+        dictionary.add("محمد");
+
+        dictionary.remove("محمد");
+        Assertions.assertThat(dictionary.lookup("محمود", 2, 5)).extracting(SymSpell.Suggestion::term).containsExactly("محمد");
+
+        dictionary.remove("محمد");
+        Assertions.assertThat(dictionary.contains("محمد")).isFalse();
+        Assertions.assertThat(dictionary.lookup("محمود", 2, 5)).isEmpty();
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 2 + random.nextInt(6);
+        for (int i = 0; i < length; i++) sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mohamed.lawyer.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class TernarySearchTreeTest {
+
+    private static final String ALPHABET = "ابتمحد";
+
+    @Test
+    public void TernarySearchTree_complete_MatchesSortedPrefixScan() {
+        Random random = new Random(9);
+        TernarySearchTree<String> tree = new TernarySearchTree<>();
+        TreeMap<String, Integer> keys = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String key = randomKey(random);
+            tree.add(key, key);
+            keys.merge(key, 1, Integer::sum);
+        }
+        for (int i = 0; i < 1000; i++) {
+            String key = randomKey(random);
+            tree.remove(key, key);
+            keys.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+
+        for (int run = 0; run < 500; run++) {
+            String prefix = randomKey(random).substring(0, 1 + random.nextInt(2));
+            List<String> expected = keys.navigableKeySet().stream()
+                    .filter(key -> key.startsWith(prefix))
+                    .limit(10)
+                    .toList();
+
+            Assertions.assertThat(tree.complete(prefix, 10)).isEqualTo(expected);
+        }
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 2 + random.nextInt(5);
+        for (int i = 0; i < length; i++) sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.mohamed.lawyer.utils;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class TopKTest {
+
+    @Test
+    public void TopK_toSortedList_MatchesFullSort() {
+        Random random = new Random(11);
+        for (int run = 0; run < 200; run++) {
+            List<Integer> values = IntStream.range(0, random.nextInt(500)).map(i -> random.nextInt(100)).boxed().toList();
+            int k = 1 + random.nextInt(30);
+
+            TopK<Integer> topK = new TopK<>(k, Comparator.naturalOrder());
+            values.forEach(topK::offer);
+
+            Assertions.assertThat(topK.size()).isLessThanOrEqualTo(k);
+            Assertions.assertThat(topK.toSortedList())
+                    .isEqualTo(values.stream().sorted(Comparator.reverseOrder()).limit(k).toList());
+        }
+    }
+}